@@ -0,0 +1,41 @@
+package xyz.vibzz.jingle.thincapture.benchmark;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Shared parameter parsing and inputs for the pipeline benchmarks.
+ */
+final class BenchmarkInputs {
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Parses a {@code WIDTHxHEIGHT} parameter, e.g. {@code 280x1000}.
+     */
+    static Dimension parseSize(String size) {
+        int x = size.indexOf('x');
+        return new Dimension(Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1)));
+    }
+
+    /**
+     * Output size for a source scaled by {@code ratio}, at least one pixel each way.
+     */
+    static Dimension scaled(Dimension source, double ratio) {
+        return new Dimension(Math.max(1, (int) Math.round(source.width * ratio)),
+                Math.max(1, (int) Math.round(source.height * ratio)));
+    }
+
+    /**
+     * A gradient stand-in for a user's background picture, at a size that never matches
+     * the output so it always has to be scaled.
+     */
+    static BufferedImage backgroundImage() {
+        BufferedImage image = new BufferedImage(512, 384, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(0x203040), 512, 384, new Color(0x806040)));
+        g.fillRect(0, 0, 512, 384);
+        g.dispose();
+        return image;
+    }
+}
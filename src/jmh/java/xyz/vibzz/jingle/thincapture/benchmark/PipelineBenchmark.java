@@ -0,0 +1,73 @@
+package xyz.vibzz.jingle.thincapture.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.vibzz.jingle.thincapture.capture.MemorySource;
+import xyz.vibzz.jingle.thincapture.pipeline.FilterPipeline;
+import xyz.vibzz.jingle.thincapture.pipeline.MemoryPresenter;
+import xyz.vibzz.jingle.thincapture.pipeline.Upscalers;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One filtered tick end to end: source frame in, filtered and scaled frame presented to
+ * memory. The synthetic world pans every frame, so every tile is dirty and nothing is
+ * skipped; this is the worst case of a moving player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PipelineBenchmark {
+    /** Thin BT and Planar Abuse capture sizes. */
+    @Param({"280x1000", "1920x300"})
+    public String size;
+
+    /** Output size relative to the source. */
+    @Param({"0.5", "1", "2", "3"})
+    public double ratio;
+
+    /** Whether the frames contain F3-style text for the filter to keep. */
+    @Param({"true", "false"})
+    public boolean text;
+
+    @Param({"transparent", "solid", "image"})
+    public String background;
+
+    @Param({"nearest"})
+    public String scaler;
+
+    @Param({"false"})
+    public boolean parallel;
+
+    private MemorySource source;
+    private FilterPipeline pipeline;
+    private MemoryPresenter presenter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dimension src = BenchmarkInputs.parseSize(size);
+        Dimension out = BenchmarkInputs.scaled(src, ratio);
+        source = MemorySource.synthetic(src.width, src.height, text, 16, 42);
+        presenter = new MemoryPresenter(out.width, out.height);
+        pipeline = new FilterPipeline();
+        pipeline.setBackground(!background.equals("solid") && !background.equals("image"), Color.BLACK,
+                background.equals("image") ? BenchmarkInputs.backgroundImage() : null);
+        pipeline.setUpscaler(Upscalers.create(scaler));
+        pipeline.setParallel(parallel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.release();
+        presenter.release();
+    }
+
+    @Benchmark
+    public boolean tick() {
+        int[] frame = source.capture(null, null);
+        return pipeline.process(frame, source.getWidth(), source.getHeight(), presenter);
+    }
+}
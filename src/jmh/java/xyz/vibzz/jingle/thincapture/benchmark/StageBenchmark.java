@@ -0,0 +1,107 @@
+package xyz.vibzz.jingle.thincapture.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.vibzz.jingle.thincapture.capture.MemorySource;
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+import xyz.vibzz.jingle.thincapture.filter.FilterChain;
+import xyz.vibzz.jingle.thincapture.pipeline.FilterKernel;
+import xyz.vibzz.jingle.thincapture.pipeline.FilterPipeline;
+import xyz.vibzz.jingle.thincapture.pipeline.MemoryPresenter;
+import xyz.vibzz.jingle.thincapture.pipeline.ScaleTables;
+import xyz.vibzz.jingle.thincapture.pipeline.TileTracker;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The individual stages of a filtered tick at source size, to see which one a change
+ * moved. Direct little-endian buffers stand in for DIB section memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StageBenchmark {
+    @Param({"280x1000", "1920x300"})
+    public String size;
+
+    private int width;
+    private int height;
+    private int[] frame;
+    private int[] pixels;
+    private int[] mask;
+    private IntBuffer dib;
+    private CompiledFilter filter;
+    private ScaleTables scale;
+    private TileTracker tiles;
+
+    private FilterPipeline bgPipeline;
+    private MemoryPresenter bgPresenter;
+    private BufferedImage[] bgImages;
+    private int bgIndex = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dimension src = BenchmarkInputs.parseSize(size);
+        width = src.width;
+        height = src.height;
+        MemorySource source = MemorySource.synthetic(width, height, true, 1, 42);
+        frame = source.capture(null, null);
+        pixels = new int[width * height];
+        mask = new int[width * height];
+        dib = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        dib.put(frame);
+        filter = FilterChain.threshold(200);
+        scale = new ScaleTables();
+        scale.ensure(width, height, width, height);
+        tiles = new TileTracker();
+        tiles.update(frame, width, height);
+
+        bgPipeline = new FilterPipeline();
+        bgPresenter = new MemoryPresenter(width, height);
+        bgImages = new BufferedImage[]{BenchmarkInputs.backgroundImage(), BenchmarkInputs.backgroundImage()};
+    }
+
+    /** Copying a captured DIB out to the pipeline's int array. */
+    @Benchmark
+    public int[] dibToPixels() {
+        ((Buffer) dib).clear(); // Buffer cast keeps the Java 8 method signature
+        dib.get(pixels, 0, width * height);
+        return pixels;
+    }
+
+    /** Change detection on a frame identical to the last, i.e. static F3 text. */
+    @Benchmark
+    public int tileHashUnchanged() {
+        return tiles.update(frame, width, height);
+    }
+
+    /** Text/background decision per source pixel, the first step of upscaling. */
+    @Benchmark
+    public int[] classify() {
+        FilterKernel.classify(frame, mask, width * height, filter);
+        return mask;
+    }
+
+    /** Filtering and premultiplied BGRA packing into DIB memory at 1:1. */
+    @Benchmark
+    public IntBuffer filterToBgra() {
+        FilterKernel.filterToBgra(frame, width, height, dib, width, height, filter, null, 0, scale);
+        return dib;
+    }
+
+    /** A tick that has to rescale the background image first, as after a settings change. */
+    @Benchmark
+    public boolean backgroundRescale() {
+        bgIndex ^= 1;
+        bgPipeline.setBackground(false, Color.BLACK, bgImages[bgIndex]);
+        return bgPipeline.process(frame, width, height, bgPresenter);
+    }
+}
@@ -0,0 +1,58 @@
+package xyz.vibzz.jingle.thincapture.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.vibzz.jingle.thincapture.capture.MemorySource;
+import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+import xyz.vibzz.jingle.thincapture.pipeline.FilterPipeline;
+import xyz.vibzz.jingle.thincapture.pipeline.MemoryPresenter;
+import xyz.vibzz.jingle.thincapture.pipeline.Upscalers;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtered ticks at the upscale ratios projectors are typically set to, comparing the
+ * nearest-neighbour kernel with the smoothing upscalers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class UpscalerBenchmark {
+    @Param({"280x1000", "1920x300"})
+    public String size;
+
+    @Param({"1.5", "2", "4"})
+    public double ratio;
+
+    @Param({CaptureConfig.SCALER_NEAREST, CaptureConfig.SCALER_BILINEAR, CaptureConfig.SCALER_SCALE2X})
+    public String scaler;
+
+    private MemorySource source;
+    private FilterPipeline pipeline;
+    private MemoryPresenter presenter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dimension src = BenchmarkInputs.parseSize(size);
+        Dimension out = BenchmarkInputs.scaled(src, ratio);
+        source = MemorySource.synthetic(src.width, src.height, true, 16, 42);
+        presenter = new MemoryPresenter(out.width, out.height);
+        pipeline = new FilterPipeline();
+        pipeline.setUpscaler(Upscalers.create(scaler));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.release();
+        presenter.release();
+    }
+
+    @Benchmark
+    public boolean tick() {
+        int[] frame = source.capture(null, null);
+        return pipeline.process(frame, source.getWidth(), source.getHeight(), presenter);
+    }
+}
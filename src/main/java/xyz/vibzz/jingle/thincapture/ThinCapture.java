@@ -11,19 +11,29 @@ import xyz.duncanruns.jingle.plugin.PluginManager;
 import xyz.duncanruns.jingle.win32.User32;
 import xyz.vibzz.jingle.thincapture.config.BackgroundConfig;
 import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+import xyz.vibzz.jingle.thincapture.filter.FilterChain;
 import xyz.vibzz.jingle.thincapture.frame.BackgroundFrame;
 import xyz.vibzz.jingle.thincapture.frame.CaptureFrame;
+import xyz.vibzz.jingle.thincapture.frame.CaptureGroup;
+import xyz.vibzz.jingle.thincapture.jfr.CaptureEvents;
+import xyz.vibzz.jingle.thincapture.pipeline.ParallelFilter;
 import xyz.vibzz.jingle.thincapture.ui.BackgroundsPluginPanel;
+import xyz.vibzz.jingle.thincapture.ui.PerformancePluginPanel;
 import xyz.vibzz.jingle.thincapture.ui.PlanarAbusePluginPanel;
 import xyz.vibzz.jingle.thincapture.ui.ThinCapturePluginPanel;
+import xyz.vibzz.jingle.thincapture.util.DisplayTransforms;
+import xyz.vibzz.jingle.thincapture.util.ImageCache;
 import xyz.vibzz.jingle.thincapture.util.ResizingSync;
+import xyz.vibzz.jingle.thincapture.util.TraceWriter;
 
 import java.awt.*;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -31,13 +41,15 @@ public class ThinCapture {
     public static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor();
     private static ThinCaptureOptions options = null;
 
-    // Thin BT frames
-    private static final List<CaptureFrame> frames = new ArrayList<>();
+    // Thin BT frames (copy-on-write: the group tick iterates them on the executor thread)
+    private static final List<CaptureFrame> frames = new CopyOnWriteArrayList<>();
+    private static final CaptureGroup thinBTGroup = new CaptureGroup("Thin BT", frames);
     private static final List<BackgroundFrame> bgFrames = new ArrayList<>();
     private static boolean thinBTShowing = false;
 
     // Planar Abuse frames
-    private static final List<CaptureFrame> planarFrames = new ArrayList<>();
+    private static final List<CaptureFrame> planarFrames = new CopyOnWriteArrayList<>();
+    private static final CaptureGroup planarGroup = new CaptureGroup("Planar Abuse", planarFrames);
     private static final List<BackgroundFrame> planarBgFrames = new ArrayList<>();
     private static boolean planarShowing = false;
 
@@ -48,6 +60,11 @@ public class ThinCapture {
     // Background management
     private static boolean backgroundsShowing = false;
 
+    // MC client size seen by the last resize check
+    private static int lastClientWidth = 0;
+    private static int lastClientHeight = 0;
+    private static String lastMode = "none";
+
     private enum ActiveBgType { NONE, THIN_BT, PLANAR, EYESEE }
     private static ActiveBgType activeBgType = ActiveBgType.NONE;
 
@@ -102,6 +119,9 @@ public class ThinCapture {
                 ", Planar=" +
                 (planar != null ? planar.width + "x" + planar.height : "not found in Resizing script, fallback " + options.planarAbuseWidth + "x" + options.planarAbuseHeight));
 
+        ImageCache.setMaxMegabytes(options.imageCacheMb);
+        DisplayTransforms.watchDisplayChanges();
+
         // Initialize Thin BT frames
         for (CaptureConfig config : options.captures) {
             frames.add(new CaptureFrame(config.name));
@@ -123,6 +143,10 @@ public class ThinCapture {
             eyeSeeBgFrames.add(createBgFrame(bg));
         }
 
+        // One paced tick per mode draws all of that mode's frames
+        updateFpsLimit();
+        if (options.timingTrace) TraceWriter.start();
+
         // Add plugin tabs
         ThinCapturePluginPanel thinPanel = new ThinCapturePluginPanel();
         JingleGUI.addPluginTab("Thin Captures", thinPanel.mainPanel, thinPanel::onSwitchTo);
@@ -133,6 +157,9 @@ public class ThinCapture {
         BackgroundsPluginPanel bgPanel = new BackgroundsPluginPanel();
         JingleGUI.addPluginTab("Backgrounds", bgPanel.mainPanel, bgPanel::onSwitchTo);
 
+        PerformancePluginPanel perfPanel = new PerformancePluginPanel();
+        JingleGUI.addPluginTab("Performance", perfPanel.mainPanel, perfPanel::onSwitchTo);
+
         // Register events
         PluginEvents.START_TICK.register(ThinCapture::detectResize);
         PluginEvents.SHOW_PROJECTOR.register(ThinCapture::onShowProjector);
@@ -185,7 +212,7 @@ public class ThinCapture {
         CaptureFrame f = frames.get(index);
         if (enabled && thinBTShowing) {
             CaptureConfig c = options.captures.get(index);
-            f.setFilterOptions(c.textOnly, c.textThreshold, c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+            applyFilterOptions(f, c);
             f.positionCapture(
                     new Rectangle(c.screenX, c.screenY, c.screenW, c.screenH),
                     new Rectangle(c.captureX, c.captureY, c.captureW, c.captureH)
@@ -212,7 +239,7 @@ public class ThinCapture {
         if (index < 0 || index >= options.captures.size() || index >= frames.size()) return;
         CaptureConfig c = options.captures.get(index);
         CaptureFrame f = frames.get(index);
-        f.setFilterOptions(c.textOnly, c.textThreshold, c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+        applyFilterOptions(f, c);
         // Also reposition in case textOnly changed (toggles layered window)
         f.positionCapture(
                 new Rectangle(c.screenX, c.screenY, c.screenW, c.screenH),
@@ -272,7 +299,7 @@ public class ThinCapture {
         CaptureFrame f = planarFrames.get(index);
         if (enabled && planarShowing) {
             CaptureConfig c = options.planarAbuseCaptures.get(index);
-            f.setFilterOptions(c.textOnly, c.textThreshold, c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+            applyFilterOptions(f, c);
             f.positionCapture(
                     new Rectangle(c.screenX, c.screenY, c.screenW, c.screenH),
                     new Rectangle(c.captureX, c.captureY, c.captureW, c.captureH)
@@ -299,7 +326,7 @@ public class ThinCapture {
         if (index < 0 || index >= options.planarAbuseCaptures.size() || index >= planarFrames.size()) return;
         CaptureConfig c = options.planarAbuseCaptures.get(index);
         CaptureFrame f = planarFrames.get(index);
-        f.setFilterOptions(c.textOnly, c.textThreshold, c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+        applyFilterOptions(f, c);
         f.positionCapture(
                 new Rectangle(c.screenX, c.screenY, c.screenW, c.screenH),
                 new Rectangle(c.captureX, c.captureY, c.captureW, c.captureH)
@@ -479,6 +506,17 @@ public class ThinCapture {
     // ===== Resize Detection =====
 
     private static void detectResize() {
+        Object event = CaptureEvents.beginResizeCheck();
+        checkResize();
+        String mode = thinBTShowing ? "thin" : planarShowing ? "planar" : "none";
+        CaptureEvents.endResizeCheck(event, lastClientWidth, lastClientHeight, mode);
+        if (!mode.equals(lastMode)) {
+            lastMode = mode;
+            TraceWriter.recordMode(mode, lastClientWidth + "x" + lastClientHeight);
+        }
+    }
+
+    private static void checkResize() {
         try {
             if (!Jingle.getMainInstance().isPresent()) {
                 if (thinBTShowing) hideThinBTCaptures();
@@ -509,6 +547,8 @@ public class ThinCapture {
             User32.INSTANCE.GetClientRect(hwnd, rect);
             int w = rect.right - rect.left;
             int h = rect.bottom - rect.top;
+            lastClientWidth = w;
+            lastClientHeight = h;
 
             // Sizes are always synced from the Resizing script (with fallback)
             int thinW = getEffectiveThinBTWidth();
@@ -551,7 +591,7 @@ public class ThinCapture {
             CaptureConfig c = options.captures.get(i);
             CaptureFrame f = frames.get(i);
             if (c.enabled) {
-                f.setFilterOptions(c.textOnly, c.textThreshold, c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+                applyFilterOptions(f, c);
                 f.positionCapture(
                         new Rectangle(c.screenX, c.screenY, c.screenW, c.screenH),
                         new Rectangle(c.captureX, c.captureY, c.captureW, c.captureH)
@@ -589,7 +629,7 @@ public class ThinCapture {
             CaptureConfig c = options.planarAbuseCaptures.get(i);
             CaptureFrame f = planarFrames.get(i);
             if (c.enabled) {
-                f.setFilterOptions(c.textOnly, c.textThreshold, c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+                applyFilterOptions(f, c);
                 f.positionCapture(
                         new Rectangle(c.screenX, c.screenY, c.screenW, c.screenH),
                         new Rectangle(c.captureX, c.captureY, c.captureW, c.captureH)
@@ -623,19 +663,52 @@ public class ThinCapture {
         }
     }
 
+    private static void applyFilterOptions(CaptureFrame f, CaptureConfig c) {
+        f.setFilterOptions(c.textOnly, FilterChain.compile(c), c.transparentBg, parseColor(c.bgColor), c.bgImagePath);
+        f.setScaler(c.scaler);
+    }
+
     public static void updateFpsLimit() {
-        int fps = options.fpsLimit;
-        for (CaptureFrame f : frames) {
-            f.restartDrawingTask(fps);
-        }
-        int planarFps = options.planarAbuseFpsLimit;
-        for (CaptureFrame f : planarFrames) {
-            f.restartDrawingTask(planarFps);
-        }
+        thinBTGroup.start(options.fpsLimit);
+        planarGroup.start(options.planarAbuseFpsLimit);
+    }
+
+    public static List<CaptureFrame> getFrames() {
+        return Collections.unmodifiableList(frames);
+    }
+
+    public static List<CaptureFrame> getPlanarFrames() {
+        return Collections.unmodifiableList(planarFrames);
+    }
+
+    public static List<BackgroundFrame> getBgFrames() {
+        return Collections.unmodifiableList(bgFrames);
+    }
+
+    public static List<BackgroundFrame> getPlanarBgFrames() {
+        return Collections.unmodifiableList(planarBgFrames);
+    }
+
+    public static List<BackgroundFrame> getEyeSeeBgFrames() {
+        return Collections.unmodifiableList(eyeSeeBgFrames);
+    }
+
+    public static CaptureGroup getThinBTGroup() {
+        return thinBTGroup;
+    }
+
+    public static CaptureGroup getPlanarGroup() {
+        return planarGroup;
     }
 
     private static void stop() {
+        thinBTGroup.dispose();
+        planarGroup.dispose();
         EXECUTOR.shutdown();
+        ParallelFilter.shutdown();
+        TraceWriter.stopAndWait();
+        DisplayTransforms.stopWatching();
+        ImageCache.clear();
         for (CaptureFrame f : frames) f.dispose();
         for (BackgroundFrame bf : bgFrames) bf.dispose();
         for (CaptureFrame f : planarFrames) f.dispose();
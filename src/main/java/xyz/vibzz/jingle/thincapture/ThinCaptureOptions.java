@@ -34,6 +34,11 @@ public class ThinCaptureOptions {
     // Compatibility
     public boolean amdCompatMode = false;
 
+    // Performance
+    public boolean parallelFiltering = false;
+    public boolean timingTrace = false;
+    public int imageCacheMb = 256;
+
     // EyeSee settings
     public boolean eyeSeeEnabled = false;
     public List<BackgroundConfig> eyeSeeBackgrounds = new ArrayList<>();
@@ -0,0 +1,120 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import xyz.duncanruns.jingle.Jingle;
+import xyz.vibzz.jingle.thincapture.win32.User32Direct;
+
+/**
+ * Game-window state shared by every frame drawn in one tick. Resolved once per tick by the
+ * frame group, so frames and their {@link CaptureSource}s don't each query the instance,
+ * hwnd and client area.
+ * <p>
+ * Not thread-safe: only touch it from the thread that runs the capture ticks.
+ */
+public class CaptureContext {
+    private WinDef.HWND hwnd;
+    private Pointer hwndPointer;
+    private final int[] clientScreen = new int[6];
+    private boolean clientScreenValid = false;
+    private SourceSnapshot snapshot;
+
+    // Reused for every query instead of allocating native structures per tick. Auto-sync is
+    // off; fields are written and read back explicitly around each call.
+    private final WinDef.RECT clientRect = new WinDef.RECT();
+    private final WinDef.POINT topLeft = new WinDef.POINT();
+    private final WinDef.POINT bottomRight = new WinDef.POINT();
+
+    public CaptureContext() {
+        clientRect.setAutoSynch(false);
+        topLeft.setAutoSynch(false);
+        bottomRight.setAutoSynch(false);
+    }
+
+    /**
+     * Points the context at the current Minecraft instance, dropping cached values from
+     * the previous tick.
+     *
+     * @return false if there is no instance to capture from
+     */
+    public boolean resolve() {
+        clientScreenValid = false;
+        snapshot = null;
+        if (!Jingle.getMainInstance().isPresent()) {
+            hwnd = null;
+            hwndPointer = null;
+            return false;
+        }
+        hwnd = Jingle.getMainInstance().get().hwnd;
+        hwndPointer = hwnd != null ? hwnd.getPointer() : null;
+        return hwnd != null;
+    }
+
+    public WinDef.HWND getHwnd() {
+        return hwnd;
+    }
+
+    /** The window handle as a raw pointer, for the direct-mapped bindings. */
+    public Pointer getHwndPointer() {
+        return hwndPointer;
+    }
+
+    /**
+     * @return this tick's shared grab of the window, or null if frames must read it themselves
+     */
+    public SourceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(SourceSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Computes the client area's physical screen position and size, at most once per tick;
+     * every frame of the group shares the result. The returned array is reused, so don't
+     * keep it past the tick.
+     * Uses ClientToScreen to get the exact client origin and bottom-right, avoiding
+     * AdjustWindowRectEx DPI issues on per-monitor DPI-aware processes (Java 9+).
+     *
+     * @return [clientScreenX, clientScreenY, physClientW, physClientH, clientW, clientH]
+     */
+    public int[] getClientScreenInfo() {
+        if (clientScreenValid) return clientScreen;
+
+        // Get client area size in client (logical) pixels
+        User32Direct.GetClientRect(hwndPointer, clientRect);
+        clientRect.read();
+        int clientW = clientRect.right - clientRect.left;
+        int clientH = clientRect.bottom - clientRect.top;
+
+        // Use ClientToScreen to get the physical screen position of the client area.
+        // This is always correct regardless of DPI scaling, unlike computing from
+        // GetWindowRect + AdjustWindowRectEx which gives wrong insets at non-100% DPI.
+        topLeft.x = 0;
+        topLeft.y = 0;
+        topLeft.write();
+        User32Direct.ClientToScreen(hwndPointer, topLeft);
+        topLeft.read();
+
+        bottomRight.x = clientW;
+        bottomRight.y = clientH;
+        bottomRight.write();
+        User32Direct.ClientToScreen(hwndPointer, bottomRight);
+        bottomRight.read();
+
+        int clientScreenX = topLeft.x;
+        int clientScreenY = topLeft.y;
+        int physClientW = bottomRight.x - topLeft.x;
+        int physClientH = bottomRight.y - topLeft.y;
+
+        clientScreen[0] = clientScreenX;
+        clientScreen[1] = clientScreenY;
+        clientScreen[2] = physClientW;
+        clientScreen[3] = physClientH;
+        clientScreen[4] = clientW;
+        clientScreen[5] = clientH;
+        clientScreenValid = true;
+        return clientScreen;
+    }
+}
@@ -0,0 +1,34 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import java.awt.*;
+
+/**
+ * Produces the raw pixels of a capture region for the filtered path. Implementations own
+ * their pixel array and reuse it between ticks.
+ * <p>
+ * Not thread-safe: only touch one from the thread that runs the capture ticks.
+ */
+public interface CaptureSource {
+    /**
+     * Captures {@code region} (Minecraft client coordinates) for this tick.
+     *
+     * @param ctx the tick's game-window state; sources that don't read the screen ignore it
+     * @return xRGB pixels with a row stride of {@link #getWidth()}, or null if nothing could
+     * be captured. Only valid until the next call.
+     */
+    int[] capture(CaptureContext ctx, Rectangle region);
+
+    /** Width of the last captured frame, which may differ from the region's under DPI scaling. */
+    int getWidth();
+
+    /** Height of the last captured frame. */
+    int getHeight();
+
+    /** Size of the pixel memory currently held, native and heap. */
+    long getMemoryBytes();
+
+    /**
+     * Frees native and pixel memory. Safe to call repeatedly.
+     */
+    void release();
+}
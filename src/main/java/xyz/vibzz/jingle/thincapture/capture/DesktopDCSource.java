@@ -0,0 +1,31 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import java.awt.*;
+
+/**
+ * AMD-compatible source: reads the composited desktop DC at the region's physical screen
+ * position. Works on all GPUs because DWM composites OpenGL content into the desktop.
+ * The frame comes out at physical size, so it's larger than the region under DPI scaling.
+ */
+public class DesktopDCSource extends DibSource {
+    @Override
+    public int[] capture(CaptureContext ctx, Rectangle region) {
+        int[] clientScreen = ctx.getClientScreenInfo();
+        int clientScreenX = clientScreen[0];
+        int clientScreenY = clientScreen[1];
+        int physClientW = clientScreen[2];
+        int physClientH = clientScreen[3];
+        int clientW = clientScreen[4];
+        int clientH = clientScreen[5];
+
+        double scaleX = clientW > 0 ? (double) physClientW / clientW : 1.0;
+        double scaleY = clientH > 0 ? (double) physClientH / clientH : 1.0;
+
+        int srcX = clientScreenX + (int) (region.x * scaleX);
+        int srcY = clientScreenY + (int) (region.y * scaleY);
+        int srcW = (int) (region.width * scaleX);
+        int srcH = (int) (region.height * scaleY);
+
+        return blitFrom(null, srcX, srcY, srcW, srcH) ? pixels : null;
+    }
+}
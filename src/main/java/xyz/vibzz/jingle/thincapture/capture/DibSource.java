@@ -0,0 +1,80 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import com.sun.jna.Pointer;
+import xyz.vibzz.jingle.thincapture.win32.DibSection;
+import xyz.vibzz.jingle.thincapture.win32.GDI32Direct;
+import xyz.vibzz.jingle.thincapture.win32.User32Direct;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+/**
+ * Base for sources that BitBlt from a GDI device context into a persistent DIB section
+ * and hand the result to the pipeline as an int array.
+ */
+abstract class DibSource implements CaptureSource {
+    private final DibSection dib = new DibSection();
+    protected int[] pixels = new int[0];
+    protected int width = 0;
+    protected int height = 0;
+
+    /**
+     * Copies a {@code w}x{@code h} rectangle at ({@code x}, {@code y}) of the DC of
+     * {@code hwnd} (null for the whole desktop) into {@link #pixels}.
+     *
+     * @return false if the DIB couldn't be created or the blit failed
+     */
+    protected boolean blitFrom(Pointer hwnd, int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0 || !dib.ensure(w, h)) return false;
+
+        Pointer srcDC = User32Direct.GetDC(hwnd);
+        if (srcDC == null) return false;
+        boolean ok;
+        try {
+            ok = GDI32Direct.BitBlt(
+                    dib.getDC().getPointer(), 0, 0, w, h,
+                    srcDC, x, y,
+                    GDI32Direct.SRCCOPY
+            );
+        } finally {
+            User32Direct.ReleaseDC(hwnd, srcDC);
+        }
+        if (!ok) return false;
+
+        // BGRA DIB memory is already little-endian xRGB, so it can be bulk-copied as ints.
+        // The undefined alpha byte is left as-is: the filter kernel forces it to 0xFF per word.
+        ensurePixels(w, h);
+        IntBuffer dibPixels = dib.getPixels();
+        ((Buffer) dibPixels).clear(); // Buffer cast keeps the Java 8 method signature
+        dibPixels.get(pixels, 0, w * h);
+        return true;
+    }
+
+    protected void ensurePixels(int w, int h) {
+        if (pixels.length != w * h) pixels = new int[w * h];
+        width = w;
+        height = h;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return dib.getMemoryBytes() + (long) pixels.length * 4;
+    }
+
+    @Override
+    public void release() {
+        dib.release();
+        pixels = new int[0];
+        width = height = 0;
+    }
+}
@@ -0,0 +1,129 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Plays back frames held in memory in a loop, ignoring the region and context. Lets the
+ * filter and scale pipeline run headless, e.g. in benchmarks or on a CI box without
+ * Windows APIs, with either recorded captures or {@linkplain #synthetic generated} ones.
+ */
+public class MemorySource implements CaptureSource {
+    private static final int GLYPH_W = 5;
+    private static final int GLYPH_H = 7;
+
+    private final int width;
+    private final int height;
+    private final int[][] frames;
+    private int next = 0;
+
+    /**
+     * @param frames xRGB frames of {@code width * height} pixels each, played in order
+     */
+    public MemorySource(int width, int height, int[]... frames) {
+        if (frames.length == 0) throw new IllegalArgumentException("MemorySource needs at least one frame");
+        for (int[] frame : frames) {
+            if (frame.length != width * height) {
+                throw new IllegalArgumentException("Frame size doesn't match " + width + "x" + height);
+            }
+        }
+        this.width = width;
+        this.height = height;
+        this.frames = frames;
+    }
+
+    /**
+     * Generates frames that look like a capture of the game: a textured, moving world with
+     * optional F3-style debug text (white glyphs with a dark shadow) on top. The world pans
+     * one pixel per frame and the first text line changes every frame, like coordinates do.
+     *
+     * @param text       whether to draw text
+     * @param frameCount how many distinct frames to loop over
+     */
+    public static MemorySource synthetic(int width, int height, boolean text, int frameCount, long seed) {
+        Random random = new Random(seed);
+        int[] world = new int[(width + frameCount) * height];
+        int worldW = width + frameCount;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < worldW; x++) {
+                int shade = random.nextInt(48);
+                int base = y < height / 3 ? 0x5080C0 : 0x407030;
+                world[y * worldW + x] = base + (shade << 16 | shade << 8 | shade);
+            }
+        }
+
+        int scale = Math.max(1, Math.min(width, height) / 140);
+        int lineH = (GLYPH_H + 2) * scale;
+        int glyphW = (GLYPH_W + 1) * scale;
+        int lines = Math.max(1, height / lineH / 2);
+        int columns = Math.max(1, width / glyphW * 2 / 3);
+        long[][] glyphs = new long[lines][columns];
+        for (long[] line : glyphs) {
+            for (int c = 0; c < line.length; c++) line[c] = random.nextLong();
+        }
+
+        int[][] frames = new int[frameCount][];
+        for (int f = 0; f < frameCount; f++) {
+            int[] frame = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(world, y * worldW + f, frame, y * width, width);
+            }
+            if (text) {
+                for (int c = 0; c < columns; c++) glyphs[0][c] = random.nextLong();
+                for (int l = 0; l < lines; l++) {
+                    for (int c = 0; c < columns; c++) {
+                        drawGlyph(frame, width, height, 2 * scale + c * glyphW, 2 * scale + l * lineH, scale, glyphs[l][c]);
+                    }
+                }
+            }
+            frames[f] = frame;
+        }
+        return new MemorySource(width, height, frames);
+    }
+
+    private static void drawGlyph(int[] frame, int width, int height, int gx, int gy, int scale, long bits) {
+        for (int pass = 0; pass < 2; pass++) {
+            // Shadow first, offset by one text pixel, then the glyph itself
+            int offset = pass == 0 ? scale : 0;
+            int colour = pass == 0 ? 0x3F3F3F : 0xE0E0E0;
+            for (int py = 0; py < GLYPH_H; py++) {
+                for (int px = 0; px < GLYPH_W; px++) {
+                    if ((bits >>> (py * GLYPH_W + px) & 1) == 0) continue;
+                    int x0 = gx + px * scale + offset;
+                    int y0 = gy + py * scale + offset;
+                    for (int y = y0; y < Math.min(y0 + scale, height); y++) {
+                        for (int x = x0; x < Math.min(x0 + scale, width); x++) {
+                            frame[y * width + x] = colour;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int[] capture(CaptureContext ctx, Rectangle region) {
+        int[] frame = frames[next];
+        next = (next + 1) % frames.length;
+        return frame;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return (long) frames.length * width * height * 4;
+    }
+
+    @Override
+    public void release() {
+    }
+}
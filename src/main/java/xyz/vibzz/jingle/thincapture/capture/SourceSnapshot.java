@@ -0,0 +1,94 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import xyz.vibzz.jingle.thincapture.win32.DibSection;
+import xyz.vibzz.jingle.thincapture.win32.GDI32Direct;
+import xyz.vibzz.jingle.thincapture.win32.User32Direct;
+
+import java.awt.*;
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+/**
+ * One grab of the Minecraft window per tick, shared by every capture of a frame group.
+ * The group blits the union of the showing frames' capture regions into a single DIB, and
+ * each frame then reads its own region out of it: direct frames StretchBlt from the memory
+ * DC, filtered frames bulk-copy their rows. N window DC reads become one.
+ * <p>
+ * Coordinates are Minecraft client coordinates, like {@code captureRegion}.
+ * Not thread-safe: only touch it from the thread that runs the capture ticks.
+ */
+public class SourceSnapshot {
+    private final DibSection dib = new DibSection();
+    private final Rectangle bounds = new Rectangle();
+    private boolean valid = false;
+
+    /**
+     * Copies the given client-area rectangle of {@code hwnd} into the snapshot.
+     *
+     * @return false if nothing could be grabbed; frames then fall back to their own reads
+     */
+    public boolean grab(Pointer hwnd, Rectangle region) {
+        valid = false;
+        if (region.isEmpty() || !dib.ensure(region.width, region.height)) return false;
+
+        Pointer srcDC = User32Direct.GetDC(hwnd);
+        if (srcDC == null) return false;
+        try {
+            valid = GDI32Direct.BitBlt(
+                    dib.getDC().getPointer(), 0, 0, region.width, region.height,
+                    srcDC, region.x, region.y,
+                    GDI32Direct.SRCCOPY
+            );
+        } finally {
+            User32Direct.ReleaseDC(hwnd, srcDC);
+        }
+        bounds.setBounds(region);
+        return valid;
+    }
+
+    /**
+     * @return whether this tick's snapshot holds all of {@code region}
+     */
+    public boolean covers(Rectangle region) {
+        return valid && bounds.contains(region);
+    }
+
+    /** Memory DC holding the snapshot; pixel (0, 0) is client point ({@link #getX()}, {@link #getY()}). */
+    public WinDef.HDC getDC() {
+        return dib.getDC();
+    }
+
+    public int getX() {
+        return bounds.x;
+    }
+
+    public int getY() {
+        return bounds.y;
+    }
+
+    /**
+     * Copies {@code region} out of the snapshot as xRGB ints with a row stride of
+     * {@code region.width}. The caller must have checked {@link #covers}.
+     */
+    public void copyRegion(Rectangle region, int[] dst) {
+        IntBuffer pixels = dib.getPixels();
+        int stride = bounds.width;
+        int offset = (region.y - bounds.y) * stride + (region.x - bounds.x);
+        for (int row = 0; row < region.height; row++, offset += stride) {
+            ((Buffer) pixels).position(offset); // Buffer cast keeps the Java 8 method signature
+            pixels.get(dst, row * region.width, region.width);
+        }
+        ((Buffer) pixels).clear();
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    public void release() {
+        valid = false;
+        dib.release();
+    }
+}
@@ -0,0 +1,20 @@
+package xyz.vibzz.jingle.thincapture.capture;
+
+import java.awt.*;
+
+/**
+ * Reads the Minecraft window DC, or the group's shared snapshot of it when that covers
+ * the region. Faster on NVIDIA/Intel but may return black on AMD.
+ */
+public class WindowDCSource extends DibSource {
+    @Override
+    public int[] capture(CaptureContext ctx, Rectangle region) {
+        SourceSnapshot snapshot = ctx.getSnapshot();
+        if (snapshot != null && snapshot.covers(region)) {
+            ensurePixels(region.width, region.height);
+            snapshot.copyRegion(region, pixels);
+            return pixels;
+        }
+        return blitFrom(ctx.getHwndPointer(), region.x, region.y, region.width, region.height) ? pixels : null;
+    }
+}
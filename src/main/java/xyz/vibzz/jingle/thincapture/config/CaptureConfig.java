@@ -1,6 +1,13 @@
 package xyz.vibzz.jingle.thincapture.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class CaptureConfig {
+    public static final String SCALER_NEAREST = "nearest";
+    public static final String SCALER_BILINEAR = "bilinear";
+    public static final String SCALER_SCALE2X = "scale2x";
+
     public String name = "New Capture";
     public boolean enabled = false;
     public int screenX = 0;
@@ -16,6 +23,8 @@ public class CaptureConfig {
     public boolean transparentBg = true;
     public String bgColor = "#000000";
     public String bgImagePath = "";
+    public List<FilterConfig> filters = new ArrayList<>(); // empty = single threshold on textThreshold
+    public String scaler = SCALER_NEAREST;
 
     @SuppressWarnings("unused") // Required by Gson for deserialization
     public CaptureConfig() {}
@@ -0,0 +1,20 @@
+package xyz.vibzz.jingle.thincapture.config;
+
+public class FilterConfig {
+    public static final String THRESHOLD = "threshold";
+    public static final String LUMINANCE = "luminance";
+    public static final String COLOR_KEY = "colorKey";
+    public static final String INVERT = "invert";
+
+    public String type = THRESHOLD; // threshold, luminance, colorKey or invert
+    public int threshold = 200; // threshold and luminance
+    public String color = "#FFFFFF"; // colorKey
+    public int tolerance = 32; // colorKey, per channel
+
+    @SuppressWarnings("unused") // Required by Gson for deserialization
+    public FilterConfig() {}
+
+    public FilterConfig(String type) {
+        this.type = type;
+    }
+}
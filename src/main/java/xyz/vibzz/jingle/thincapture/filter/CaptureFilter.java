@@ -0,0 +1,19 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+/**
+ * One step of a capture's text filter chain. A chain is evaluated left to right per
+ * pixel, starting from "discard": matching filters add the pixel to the kept set and
+ * {@link InvertFilter} flips the decision made so far.
+ * <p>
+ * Chains are never run filter by filter; {@link FilterChain#compile} fuses them into a
+ * single per-pixel test. Implementations must be pure functions of their arguments, since
+ * the compiled chain is evaluated ahead of time for every colour on a background thread.
+ */
+public interface CaptureFilter {
+    /**
+     * @param keep the decision of the filters before this one
+     * @param rgb  the pixel as 0xRRGGBB, alpha ignored
+     * @return whether the pixel counts as text after this filter
+     */
+    boolean apply(boolean keep, int rgb);
+}
@@ -0,0 +1,26 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+/**
+ * Keeps pixels within {@code tolerance} of a key colour on every channel,
+ * e.g. the yellow and red labels of the pie chart.
+ */
+public class ColorKeyFilter implements CaptureFilter {
+    public final int color;
+    public final int tolerance;
+
+    public ColorKeyFilter(int color, int tolerance) {
+        this.color = color & 0xFFFFFF;
+        this.tolerance = tolerance;
+    }
+
+    public static boolean matches(int rgb, int color, int tolerance) {
+        return Math.abs(((rgb >> 16) & 0xFF) - ((color >> 16) & 0xFF)) <= tolerance
+                && Math.abs(((rgb >> 8) & 0xFF) - ((color >> 8) & 0xFF)) <= tolerance
+                && Math.abs((rgb & 0xFF) - (color & 0xFF)) <= tolerance;
+    }
+
+    @Override
+    public boolean apply(boolean keep, int rgb) {
+        return keep || matches(rgb, color, tolerance);
+    }
+}
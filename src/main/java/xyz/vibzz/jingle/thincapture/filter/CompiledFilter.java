@@ -0,0 +1,164 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filter chain fused into one per-pixel test. Built by {@link FilterChain#compile};
+ * immutable from the caller's point of view, so one instance can be shared between
+ * frames and threads.
+ * <p>
+ * Once compiled, the chain is evaluated for every 24-bit colour in the background and
+ * stored as a 2 MiB bitset, after which {@link #mask} is a single table lookup no matter
+ * how many filters or colour keys the chain has. Until the table is ready the chain is
+ * evaluated directly, with identical results.
+ * <p>
+ * Tables are built one at a time on a low-priority thread, and only once a chain has been
+ * asked for without being replaced for {@link #LUT_DELAY_MS}: typing a threshold compiles a
+ * new chain per keystroke, and only the last one is worth a table. Chains whose test is a
+ * single comparison never get one, since the lookup wouldn't be any cheaper. A lone
+ * threshold, the default for every capture, is compared inline.
+ */
+public final class CompiledFilter {
+    static final int OP_THRESHOLD = 0;
+    static final int OP_LUMINANCE = 1;
+    static final int OP_COLOR_KEY = 2;
+    static final int OP_INVERT = 3;
+    static final int OP_CUSTOM = 4;
+
+    private static final int COLORS = 1 << 24;
+    static final long LUT_DELAY_MS = 400;
+
+    private static final ScheduledExecutorService LUT_BUILDER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ThinCapture-FilterTable");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    // The most recently requested chain; a build for any other chain gives up
+    private static CompiledFilter requested;
+    private static ScheduledFuture<?> pendingBuild;
+
+    private final int[] ops;
+    private final int[] arg0;
+    private final int[] arg1;
+    private final CaptureFilter[] custom;
+    // The threshold of a lone-threshold chain, or -1
+    private final int loneThreshold;
+    private final boolean usesLut;
+
+    // Written once by the builder thread; volatile so tick threads see it as soon as it's ready
+    private volatile Lut lut;
+
+    CompiledFilter(int[] ops, int[] arg0, int[] arg1, CaptureFilter[] custom) {
+        this.ops = ops;
+        this.arg0 = arg0;
+        this.arg1 = arg1;
+        this.custom = custom;
+        this.loneThreshold = ops.length == 1 && ops[0] == OP_THRESHOLD ? arg0[0] : -1;
+        this.usesLut = ops.length > 1 || (ops.length == 1 && (ops[0] == OP_COLOR_KEY || ops[0] == OP_CUSTOM));
+    }
+
+    /**
+     * Schedules the colour lookup table to be built, replacing any build that hasn't started
+     * yet. Called every time the chain is handed out, so a chain whose build was superseded
+     * gets another chance when it comes back.
+     */
+    CompiledFilter requestLut() {
+        if (!usesLut || lut != null) return this;
+        synchronized (CompiledFilter.class) {
+            if (requested == this) return this;
+            requested = this;
+            if (pendingBuild != null) pendingBuild.cancel(false);
+            pendingBuild = LUT_BUILDER.schedule(() -> buildLut(true), LUT_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Builds the colour lookup table on the calling thread.
+     *
+     * @param abandonable whether to give up once another chain is requested
+     */
+    void buildLut(boolean abandonable) {
+        long[] bits = new long[COLORS / 64];
+        for (int rgb = 0; rgb < COLORS; rgb++) {
+            if (abandonable && (rgb & 0xFFFF) == 0 && isSuperseded()) return;
+            if (evaluate(rgb)) bits[rgb >>> 6] |= 1L << rgb;
+        }
+        lut = new Lut(bits);
+    }
+
+    private boolean isSuperseded() {
+        synchronized (CompiledFilter.class) {
+            return requested != this;
+        }
+    }
+
+    /**
+     * @return whether this chain is worth a lookup table at all
+     */
+    boolean usesLut() {
+        return usesLut;
+    }
+
+    boolean hasLut() {
+        return lut != null;
+    }
+
+    /**
+     * @param rgb the pixel as 0xRRGGBB, alpha ignored
+     * @return -1 (all bits set) if the pixel counts as text, 0 otherwise, for branch-free selects
+     */
+    public int mask(int rgb) {
+        if (loneThreshold >= 0) return ThresholdFilter.matches(rgb, loneThreshold) ? -1 : 0;
+        Lut l = lut;
+        if (l != null) {
+            int c = rgb & 0xFFFFFF;
+            return -((int) (l.bits[c >>> 6] >>> c) & 1);
+        }
+        return evaluate(rgb) ? -1 : 0;
+    }
+
+    /**
+     * @param rgb the pixel as 0xRRGGBB, alpha ignored
+     * @return whether the pixel counts as text
+     */
+    public boolean matches(int rgb) {
+        return mask(rgb) != 0;
+    }
+
+    private boolean evaluate(int rgb) {
+        boolean keep = false;
+        for (int i = 0; i < ops.length; i++) {
+            switch (ops[i]) {
+                case OP_THRESHOLD:
+                    keep = keep || ThresholdFilter.matches(rgb, arg0[i]);
+                    break;
+                case OP_LUMINANCE:
+                    keep = keep || LuminanceFilter.luma(rgb) >= arg0[i];
+                    break;
+                case OP_COLOR_KEY:
+                    keep = keep || ColorKeyFilter.matches(rgb, arg0[i], arg1[i]);
+                    break;
+                case OP_INVERT:
+                    keep = !keep;
+                    break;
+                default:
+                    keep = custom[i].apply(keep, rgb);
+                    break;
+            }
+        }
+        return keep;
+    }
+
+    private static final class Lut {
+        final long[] bits;
+
+        Lut(long[] bits) {
+            this.bits = bits;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+import org.apache.logging.log4j.Level;
+import xyz.duncanruns.jingle.Jingle;
+import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+import xyz.vibzz.jingle.thincapture.config.FilterConfig;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a capture's filter chain from its config and compiles it into a single-pass {@link CompiledFilter}.
+ */
+public final class FilterChain {
+    private static final int MAX_CACHED = 8;
+
+    // Compiled chains by structural key, so re-applying unchanged settings (every time a mode
+    // is shown) reuses the already built colour table instead of rebuilding it.
+    private static final Map<String, CompiledFilter> CACHE = new LinkedHashMap<String, CompiledFilter>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledFilter> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private FilterChain() {
+    }
+
+    /**
+     * Captures without a filter list keep the original behaviour: a single threshold on {@code textThreshold}.
+     */
+    public static List<CaptureFilter> fromConfig(CaptureConfig c) {
+        List<CaptureFilter> chain = new ArrayList<>();
+        if (c.filters == null || c.filters.isEmpty()) {
+            chain.add(new ThresholdFilter(c.textThreshold));
+            return chain;
+        }
+        for (FilterConfig f : c.filters) {
+            CaptureFilter filter = fromConfig(f);
+            if (filter != null) chain.add(filter);
+        }
+        return chain;
+    }
+
+    private static CaptureFilter fromConfig(FilterConfig f) {
+        String type = f.type == null ? "" : f.type.trim();
+        switch (type) {
+            case FilterConfig.THRESHOLD:
+                return new ThresholdFilter(f.threshold);
+            case FilterConfig.LUMINANCE:
+                return new LuminanceFilter(f.threshold);
+            case FilterConfig.COLOR_KEY:
+                return new ColorKeyFilter(parseColor(f.color), f.tolerance);
+            case FilterConfig.INVERT:
+                return new InvertFilter();
+            default:
+                Jingle.log(Level.WARN, "ThinCapture: unknown filter type \"" + type + "\", ignoring it");
+                return null;
+        }
+    }
+
+    public static CompiledFilter threshold(int threshold) {
+        List<CaptureFilter> chain = new ArrayList<>();
+        chain.add(new ThresholdFilter(threshold));
+        return compile(chain);
+    }
+
+    public static CompiledFilter compile(CaptureConfig c) {
+        return compile(fromConfig(c));
+    }
+
+    /**
+     * Flattens the chain into parallel op/argument arrays so it runs as one loop per pixel
+     * instead of one pass over the frame per filter, then asks for its colour table.
+     * Structurally equal chains share one compiled instance.
+     */
+    public static CompiledFilter compile(List<CaptureFilter> chain) {
+        String key = keyOf(chain);
+        if (key == null) return compileUncached(chain).requestLut();
+        CompiledFilter compiled;
+        synchronized (CACHE) {
+            compiled = CACHE.get(key);
+            if (compiled == null) {
+                compiled = compileUncached(chain);
+                CACHE.put(key, compiled);
+            }
+        }
+        return compiled.requestLut();
+    }
+
+    /**
+     * @return a string identifying the chain's behaviour, or null if it contains custom filters
+     */
+    private static String keyOf(List<CaptureFilter> chain) {
+        StringBuilder sb = new StringBuilder();
+        for (CaptureFilter f : chain) {
+            if (f instanceof ThresholdFilter) {
+                sb.append("t").append(((ThresholdFilter) f).threshold);
+            } else if (f instanceof LuminanceFilter) {
+                sb.append("l").append(((LuminanceFilter) f).threshold);
+            } else if (f instanceof ColorKeyFilter) {
+                sb.append("k").append(((ColorKeyFilter) f).color).append(":").append(((ColorKeyFilter) f).tolerance);
+            } else if (f instanceof InvertFilter) {
+                sb.append("i");
+            } else {
+                return null;
+            }
+            sb.append('|');
+        }
+        return sb.toString();
+    }
+
+    private static CompiledFilter compileUncached(List<CaptureFilter> chain) {
+        int n = chain.size();
+        int[] ops = new int[n];
+        int[] arg0 = new int[n];
+        int[] arg1 = new int[n];
+        CaptureFilter[] custom = new CaptureFilter[n];
+        for (int i = 0; i < n; i++) {
+            CaptureFilter f = chain.get(i);
+            if (f instanceof ThresholdFilter) {
+                ops[i] = CompiledFilter.OP_THRESHOLD;
+                arg0[i] = ((ThresholdFilter) f).threshold;
+            } else if (f instanceof LuminanceFilter) {
+                ops[i] = CompiledFilter.OP_LUMINANCE;
+                arg0[i] = ((LuminanceFilter) f).threshold;
+            } else if (f instanceof ColorKeyFilter) {
+                ops[i] = CompiledFilter.OP_COLOR_KEY;
+                arg0[i] = ((ColorKeyFilter) f).color;
+                arg1[i] = ((ColorKeyFilter) f).tolerance;
+            } else if (f instanceof InvertFilter) {
+                ops[i] = CompiledFilter.OP_INVERT;
+            } else {
+                ops[i] = CompiledFilter.OP_CUSTOM;
+                custom[i] = f;
+            }
+        }
+        return new CompiledFilter(ops, arg0, arg1, custom);
+    }
+
+    private static int parseColor(String hex) {
+        try {
+            return Color.decode(hex).getRGB() & 0xFFFFFF;
+        } catch (Exception e) {
+            return 0xFFFFFF;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+/**
+ * Flips the decision of the filters before it, e.g. a threshold followed by an invert keeps dark text.
+ */
+public class InvertFilter implements CaptureFilter {
+    @Override
+    public boolean apply(boolean keep, int rgb) {
+        return !keep;
+    }
+}
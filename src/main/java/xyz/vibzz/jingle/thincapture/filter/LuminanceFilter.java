@@ -0,0 +1,22 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+/**
+ * Keeps pixels whose perceived brightness (integer Rec. 601 luma) reaches the threshold,
+ * which also catches bright coloured text that a per-channel threshold would drop.
+ */
+public class LuminanceFilter implements CaptureFilter {
+    public final int threshold;
+
+    public LuminanceFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public static int luma(int rgb) {
+        return (77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF)) >> 8;
+    }
+
+    @Override
+    public boolean apply(boolean keep, int rgb) {
+        return keep || luma(rgb) >= threshold;
+    }
+}
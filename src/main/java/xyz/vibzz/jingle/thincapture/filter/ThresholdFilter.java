@@ -0,0 +1,21 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+/**
+ * Keeps pixels whose red, green and blue channels all reach the threshold, i.e. near-white text.
+ */
+public class ThresholdFilter implements CaptureFilter {
+    public final int threshold;
+
+    public ThresholdFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public static boolean matches(int rgb, int threshold) {
+        return ((rgb >> 16) & 0xFF) >= threshold && ((rgb >> 8) & 0xFF) >= threshold && (rgb & 0xFF) >= threshold;
+    }
+
+    @Override
+    public boolean apply(boolean keep, int rgb) {
+        return keep || matches(rgb, threshold);
+    }
+}
@@ -7,11 +7,13 @@ import org.apache.logging.log4j.Level;
 import xyz.duncanruns.jingle.Jingle;
 import xyz.duncanruns.jingle.util.WindowStateUtil;
 import xyz.duncanruns.jingle.win32.User32;
+import xyz.vibzz.jingle.thincapture.jfr.CaptureEvents;
+import xyz.vibzz.jingle.thincapture.util.DisplayTransforms;
+import xyz.vibzz.jingle.thincapture.util.FrameStats;
+import xyz.vibzz.jingle.thincapture.util.ImageCache;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.File;
 
@@ -26,6 +28,7 @@ public class BackgroundFrame extends JFrame {
     private BufferedImage bgImage = null;
     private boolean useImage = true;
     private Color bgColor = Color.BLACK;
+    private final FrameStats stats = new FrameStats();
 
     public BackgroundFrame() {
         super("ThinCapture Background");
@@ -45,6 +48,21 @@ public class BackgroundFrame extends JFrame {
         return frameHwnd;
     }
 
+    /** Paint count and paint times; backgrounds only repaint when shown or changed. */
+    public FrameStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Approximate memory of the decoded background image, or 0 while {@link ImageCache}
+     * holds it, since the cache's total already counts shared images once.
+     */
+    public long getMemoryBytes() {
+        BufferedImage image = bgImage;
+        if (image == null || ImageCache.holds(image)) return 0;
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
     public void setUseImage(boolean useImage) {
         this.useImage = useImage;
         repaint();
@@ -61,10 +79,11 @@ public class BackgroundFrame extends JFrame {
             repaint();
             return;
         }
+        Object event = CaptureEvents.beginImageLoad();
         try {
             File file = new File(path);
             if (file.exists() && file.isFile()) {
-                bgImage = ImageIO.read(file);
+                bgImage = ImageCache.load(file);
             } else {
                 bgImage = null;
                 Jingle.log(Level.WARN, "ThinCapture Background: image not found: " + path);
@@ -73,6 +92,8 @@ public class BackgroundFrame extends JFrame {
             bgImage = null;
             Jingle.log(Level.WARN, "ThinCapture Background: failed to load image: " + e.getMessage());
         }
+        BufferedImage loaded = bgImage;
+        CaptureEvents.endImageLoad(event, path, loaded != null ? loaded.getWidth() : 0, loaded != null ? loaded.getHeight() : 0);
         repaint();
     }
 
@@ -108,12 +129,15 @@ public class BackgroundFrame extends JFrame {
 
     @Override
     public void paint(Graphics g) {
+        long start = System.nanoTime();
         if (useImage && bgImage != null) {
             g.drawImage(bgImage, 0, 0, getWidth(), getHeight(), null);
         } else {
             g.setColor(bgColor);
             g.fillRect(0, 0, getWidth(), getHeight());
         }
+        stats.countTick();
+        stats.record(FrameStats.PRESENT, System.nanoTime() - start);
     }
 
     @Override
@@ -128,19 +152,15 @@ public class BackgroundFrame extends JFrame {
     }
 
     private static void setScaledWindowPos(WinDef.HWND hwnd, int x, int y, int w, int h) {
-        AffineTransform tx = GraphicsEnvironment.getLocalGraphicsEnvironment()
-                .getDefaultScreenDevice().getDefaultConfiguration()
-                .getDefaultTransform();
-        double scaleX = tx.getScaleX();
-        double scaleY = tx.getScaleY();
+        Rectangle physical = DisplayTransforms.toPhysical(new Rectangle(x, y, w, h));
 
         User32.INSTANCE.SetWindowPos(
                 hwnd,
                 new WinDef.HWND(new Pointer(0)),
-                (int) (x * scaleX),
-                (int) (y * scaleY),
-                (int) (w * scaleX),
-                (int) (h * scaleY),
+                physical.x,
+                physical.y,
+                physical.width,
+                physical.height,
                 User32.SWP_NOACTIVATE | User32.SWP_NOSENDCHANGING
         );
     }
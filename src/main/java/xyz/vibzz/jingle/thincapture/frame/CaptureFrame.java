@@ -3,57 +3,67 @@ package xyz.vibzz.jingle.thincapture.frame;
 import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.platform.win32.WinDef;
-import com.sun.jna.platform.win32.WinGDI;
-import com.sun.jna.platform.win32.WinUser;
 import org.apache.logging.log4j.Level;
 import xyz.duncanruns.jingle.Jingle;
 import xyz.duncanruns.jingle.util.WindowStateUtil;
-import xyz.duncanruns.jingle.win32.GDI32Extra;
 import xyz.duncanruns.jingle.win32.User32;
 import xyz.vibzz.jingle.thincapture.ThinCapture;
-import xyz.vibzz.jingle.thincapture.util.ScaleUtil;
+import xyz.vibzz.jingle.thincapture.capture.CaptureContext;
+import xyz.vibzz.jingle.thincapture.capture.CaptureSource;
+import xyz.vibzz.jingle.thincapture.capture.DesktopDCSource;
+import xyz.vibzz.jingle.thincapture.capture.SourceSnapshot;
+import xyz.vibzz.jingle.thincapture.capture.WindowDCSource;
+import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+import xyz.vibzz.jingle.thincapture.jfr.CaptureEvents;
+import xyz.vibzz.jingle.thincapture.pipeline.FilterPipeline;
+import xyz.vibzz.jingle.thincapture.pipeline.FramePresenter;
+import xyz.vibzz.jingle.thincapture.pipeline.Upscaler;
+import xyz.vibzz.jingle.thincapture.pipeline.Upscalers;
+import xyz.vibzz.jingle.thincapture.util.DisplayTransforms;
+import xyz.vibzz.jingle.thincapture.util.FrameStats;
+import xyz.vibzz.jingle.thincapture.util.ImageCache;
+import xyz.vibzz.jingle.thincapture.util.TraceWriter;
+import xyz.vibzz.jingle.thincapture.win32.GDI32Direct;
+import xyz.vibzz.jingle.thincapture.win32.User32Direct;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferInt;
 import java.io.File;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 public class CaptureFrame extends JFrame {
     private static final int SHOW_FLAGS = User32.SWP_NOACTIVATE | User32.SWP_NOSENDCHANGING;
-    private static final WinDef.DWORD SRCCOPY = new WinDef.DWORD(0x00CC0020);
+    private static final int COLORONCOLOR = 3;
+    private static final int HALFTONE = 4;
 
     private static final int GWL_EXSTYLE = -20;
     private static final int GWL_STYLE = -16;
     private static final int WS_EX_LAYERED = 0x00080000;
-    private static final int ULW_ALPHA = 0x00000002;
-    private static final int AC_SRC_OVER = 0x00;
-    private static final int AC_SRC_ALPHA = 0x01;
 
     private static final int SW_HIDE = 0;
     private static final int SW_SHOWNOACTIVATE = 4;
 
     private final String name;
     private final WinDef.HWND frameHwnd;
+    private final Pointer framePtr;
     private boolean currentlyShowing = false;
-    private ScheduledFuture<?> redrawTask;
 
     private Rectangle windowBounds = new Rectangle();
     private Rectangle captureRegion = new Rectangle();
 
     private boolean textOnly = false;
-    private int textThreshold = 200;
-    private boolean transparentBg = true;
-    private Color bgColor = Color.BLACK;
-    private BufferedImage bgImage = null;
-    private BufferedImage scaledBgImage = null;
-    private int lastBgScaleW = -1;
-    private int lastBgScaleH = -1;
 
-    private Robot robot;
+    private String scaler = CaptureConfig.SCALER_NEAREST;
+    private int stretchMode = COLORONCOLOR;
+
+    private final CaptureSource windowSource = new WindowDCSource();
+    private final CaptureSource desktopSource = new DesktopDCSource();
+    private final FilterPipeline pipeline = new FilterPipeline();
+    private final FramePresenter presenter;
+    private final FrameStats stats = new FrameStats();
+    private final WinDef.RECT frameRect = new WinDef.RECT();
+    private volatile boolean frameRectValid = false;
 
     public CaptureFrame(String name) {
         super();
@@ -65,68 +75,70 @@ public class CaptureFrame extends JFrame {
         this.setFocusableWindowState(false);
         this.setUndecorated(true);
 
-        try {
-            robot = new Robot();
-        } catch (AWTException e) {
-            Jingle.log(Level.ERROR, "ThinCapture " + name + ": failed to create Robot: " + e.getMessage());
-        }
-
         this.setVisible(true);
         frameHwnd = new WinDef.HWND(Native.getWindowPointer(this));
+        framePtr = frameHwnd.getPointer();
+        frameRect.setAutoSynch(false);
+        presenter = new LayeredWindowPresenter(framePtr, frameRect);
+        pipeline.setStats(stats);
+        pipeline.setName(name);
         WindowStateUtil.setHwndBorderless(frameHwnd);
         com.sun.jna.platform.win32.User32.INSTANCE.ShowWindow(frameHwnd, SW_HIDE);
+    }
+
+    public String getCaptureName() {
+        return name;
+    }
 
-        restartDrawingTask(ThinCapture.getOptions().fpsLimit);
+    public FrameStats getStats() {
+        return stats;
     }
 
-    public void setFilterOptions(boolean textOnly, int textThreshold, boolean transparentBg, Color bgColor, String bgImagePath) {
+    /**
+     * Pixel memory currently held by this capture's sources, pipeline and present DIB.
+     * Read from the UI thread, so the value may lag a resize by a tick.
+     */
+    public long getMemoryBytes() {
+        return windowSource.getMemoryBytes() + desktopSource.getMemoryBytes()
+                + pipeline.getMemoryBytes() + presenter.getMemoryBytes();
+    }
+
+    /** The MC client-area region this frame shows; read by the group to size its snapshot. */
+    Rectangle getCaptureRegion() {
+        return captureRegion;
+    }
+
+    public void setFilterOptions(boolean textOnly, CompiledFilter filter, boolean transparentBg, Color bgColor, String bgImagePath) {
         this.textOnly = textOnly;
-        this.textThreshold = textThreshold;
-        this.transparentBg = transparentBg;
-        this.bgColor = bgColor;
-        loadBgImage(bgImagePath);
+        pipeline.setFilter(filter);
+        pipeline.setBackground(transparentBg, bgColor, loadBgImage(bgImagePath));
     }
 
-    private void loadBgImage(String path) {
-        if (path == null || path.trim().isEmpty()) {
-            bgImage = null;
-            scaledBgImage = null;
-            lastBgScaleW = -1;
-            lastBgScaleH = -1;
-            return;
-        }
+    /**
+     * Selects the upscaler by {@link CaptureConfig#scaler} name. Smoothing scalers make the
+     * direct path use GDI's HALFTONE stretching and the filtered path use an {@link Upscaler}.
+     */
+    public void setScaler(String scaler) {
+        if (scaler == null) scaler = CaptureConfig.SCALER_NEAREST;
+        if (scaler.equals(this.scaler)) return;
+        this.scaler = scaler;
+        Upscaler upscaler = Upscalers.create(scaler);
+        this.stretchMode = upscaler != null ? HALFTONE : COLORONCOLOR;
+        pipeline.setUpscaler(upscaler);
+    }
+
+    private BufferedImage loadBgImage(String path) {
+        if (path == null || path.trim().isEmpty()) return null;
         try {
             File file = new File(path);
             if (file.exists() && file.isFile()) {
-                bgImage = ImageIO.read(file);
-                scaledBgImage = null;
-                lastBgScaleW = -1;
-                lastBgScaleH = -1;
-            } else {
-                bgImage = null;
-                scaledBgImage = null;
-                Jingle.log(Level.WARN, "ThinCapture " + name + ": background image not found: " + path);
+                return ImageCache.load(file);
             }
+            Jingle.log(Level.WARN, "ThinCapture " + name + ": background image not found: " + path);
         } catch (Exception e) {
-            bgImage = null;
-            scaledBgImage = null;
             Jingle.log(Level.WARN, "ThinCapture " + name + ": failed to load background image: " + e.getMessage());
         }
-    }
-
-    private BufferedImage getScaledBgImage(int w, int h) {
-        if (bgImage == null) return null;
-        if (scaledBgImage != null && lastBgScaleW == w && lastBgScaleH == h) {
-            return scaledBgImage;
-        }
-        scaledBgImage = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = scaledBgImage.createGraphics();
-        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2.drawImage(bgImage, 0, 0, w, h, null);
-        g2.dispose();
-        lastBgScaleW = w;
-        lastBgScaleH = h;
-        return scaledBgImage;
+        return null;
     }
 
     private void enableLayeredWindow() {
@@ -139,58 +151,95 @@ public class CaptureFrame extends JFrame {
         com.sun.jna.platform.win32.User32.INSTANCE.SetWindowLong(frameHwnd, GWL_EXSTYLE, exStyle & ~WS_EX_LAYERED);
     }
 
-    private void tick() {
+    /**
+     * Draws one frame. Called by the owning {@link CaptureGroup} on the tick thread.
+     */
+    void tick(CaptureContext ctx) {
         if (!currentlyShowing) return;
-        if (!Jingle.getMainInstance().isPresent()) return;
-
-        WinDef.HWND hwnd = Jingle.getMainInstance().get().hwnd;
+        stats.countTick();
+        long start = System.nanoTime();
+        Object event = CaptureEvents.beginStage();
 
         if (textOnly) {
-            tickFiltered(hwnd);
+            tickFiltered(ctx);
         } else {
-            tickDirect(hwnd);
+            tickDirect(ctx);
+        }
+        CaptureEvents.endStage(event, name, CaptureEvents.TICK, captureRegion.width, captureRegion.height);
+        if (TraceWriter.isRunning()) {
+            TraceWriter.recordTick(name, start, stats.getLast(FrameStats.CAPTURE),
+                    stats.getLast(FrameStats.FILTER), stats.getLast(FrameStats.PRESENT));
         }
     }
 
     // ===== Direct capture (no text filtering) =====
 
-    private void tickDirect(WinDef.HWND hwnd) {
+    private void tickDirect(CaptureContext ctx) {
+        long start = System.nanoTime();
+        Object event = CaptureEvents.beginStage();
         if (ThinCapture.getOptions().amdCompatMode) {
-            tickDirectDesktop(hwnd);
+            tickDirectDesktop(ctx);
         } else {
-            tickDirectWindowDC(hwnd);
+            tickDirectWindowDC(ctx);
         }
+        CaptureEvents.endStage(event, name, CaptureEvents.CAPTURE, captureRegion.width, captureRegion.height);
+        stats.record(FrameStats.CAPTURE, System.nanoTime() - start);
     }
 
     /**
-     * Original method: StretchBlt directly from the MC window DC.
+     * Original method: StretchBlt from the MC window DC, or from the group's shared
+     * snapshot of it when that covers this capture.
      * Fast, but returns black on AMD GPUs with OpenGL content.
      */
-    private void tickDirectWindowDC(WinDef.HWND hwnd) {
-        WinDef.HDC srcDC = User32.INSTANCE.GetDC(hwnd);
-        WinDef.HDC dstDC = User32.INSTANCE.GetDC(frameHwnd);
+    private void tickDirectWindowDC(CaptureContext ctx) {
+        Rectangle region = captureRegion;
+        SourceSnapshot snapshot = ctx.getSnapshot();
+        if (snapshot != null && snapshot.covers(region)) {
+            Pointer dstDC = User32Direct.GetDC(framePtr);
+            try {
+                stretchTo(dstDC, snapshot.getDC().getPointer(), region.x - snapshot.getX(), region.y - snapshot.getY(), region);
+            } finally {
+                User32Direct.ReleaseDC(framePtr, dstDC);
+            }
+            return;
+        }
+
+        Pointer hwnd = ctx.getHwndPointer();
+        Pointer srcDC = User32Direct.GetDC(hwnd);
+        Pointer dstDC = User32Direct.GetDC(framePtr);
+        try {
+            stretchTo(dstDC, srcDC, region.x, region.y, region);
+        } finally {
+            User32Direct.ReleaseDC(hwnd, srcDC);
+            User32Direct.ReleaseDC(framePtr, dstDC);
+        }
+    }
 
-        GDI32Extra.INSTANCE.SetStretchBltMode(dstDC, 3);
-        GDI32Extra.INSTANCE.StretchBlt(
+    private void stretchTo(Pointer dstDC, Pointer srcDC, int srcX, int srcY, Rectangle region) {
+        applyStretchMode(dstDC);
+        GDI32Direct.StretchBlt(
                 dstDC,
                 0, 0,
                 windowBounds.width, windowBounds.height,
                 srcDC,
-                captureRegion.x, captureRegion.y,
-                captureRegion.width, captureRegion.height,
-                SRCCOPY
+                srcX, srcY,
+                region.width, region.height,
+                GDI32Direct.SRCCOPY
         );
+    }
 
-        User32.INSTANCE.ReleaseDC(hwnd, srcDC);
-        User32.INSTANCE.ReleaseDC(frameHwnd, dstDC);
+    private void applyStretchMode(Pointer dc) {
+        int mode = stretchMode;
+        GDI32Direct.SetStretchBltMode(dc, mode);
+        if (mode == HALFTONE) GDI32Direct.SetBrushOrgEx(dc, 0, 0, null);
     }
 
     /**
      * AMD-compatible method: StretchBlt from the desktop DC (composited surface).
      * Works on all GPUs because DWM composites OpenGL content into the desktop.
      */
-    private void tickDirectDesktop(WinDef.HWND hwnd) {
-        int[] clientScreen = getClientScreenInfo(hwnd);
+    private void tickDirectDesktop(CaptureContext ctx) {
+        int[] clientScreen = ctx.getClientScreenInfo();
         int clientScreenX = clientScreen[0];
         int clientScreenY = clientScreen[1];
         int physClientW = clientScreen[2];
@@ -209,270 +258,73 @@ public class CaptureFrame extends JFrame {
         // Get the actual physical pixel size of our frame window for the blit destination.
         // GetDC on a DPI-aware window uses physical pixel coords, so we need physical size
         // rather than the logical windowBounds to fill the entire window.
-        WinDef.RECT frameRect = new WinDef.RECT();
-        User32.INSTANCE.GetWindowRect(frameHwnd, frameRect);
+        refreshFrameRect();
         int dstW = frameRect.right - frameRect.left;
         int dstH = frameRect.bottom - frameRect.top;
 
-        WinDef.HDC desktopDC = User32.INSTANCE.GetDC(null);
-        WinDef.HDC dstDC = User32.INSTANCE.GetDC(frameHwnd);
-
-        GDI32Extra.INSTANCE.SetStretchBltMode(dstDC, 3);
-        GDI32Extra.INSTANCE.StretchBlt(
-                dstDC,
-                0, 0,
-                dstW, dstH,
-                desktopDC,
-                srcX, srcY, srcW, srcH,
-                SRCCOPY
-        );
-
-        User32.INSTANCE.ReleaseDC(null, desktopDC);
-        User32.INSTANCE.ReleaseDC(frameHwnd, dstDC);
-    }
-
-    // ===== Filtered capture (text extraction with transparency) =====
-
-    private void tickFiltered(WinDef.HWND hwnd) {
-        if (ThinCapture.getOptions().amdCompatMode) {
-            tickFilteredDesktop(hwnd);
-        } else {
-            tickFilteredWindowDC(hwnd);
-        }
-    }
-
-    /**
-     * AMD-compatible filtered method: captures from desktop via Robot then filters.
-     * Source capture coords unchanged — only processFiltered output sizing needs fixing.
-     */
-    private void tickFilteredDesktop(WinDef.HWND hwnd) {
+        Pointer desktopDC = User32Direct.GetDC(null);
+        Pointer dstDC = User32Direct.GetDC(framePtr);
         try {
-            if (robot == null) return;
-
-            int[] clientScreen = getClientScreenInfo(hwnd);
-            int clientScreenX = clientScreen[0];
-            int clientScreenY = clientScreen[1];
-            int physClientW = clientScreen[2];
-            int physClientH = clientScreen[3];
-            int clientW = clientScreen[4];
-            int clientH = clientScreen[5];
-
-            double scaleX = clientW > 0 ? (double) physClientW / clientW : 1.0;
-            double scaleY = clientH > 0 ? (double) physClientH / clientH : 1.0;
-
-            int srcX = clientScreenX + (int) (captureRegion.x * scaleX);
-            int srcY = clientScreenY + (int) (captureRegion.y * scaleY);
-            int srcW = (int) (captureRegion.width * scaleX);
-            int srcH = (int) (captureRegion.height * scaleY);
-
-            BufferedImage rawCapture = robot.createScreenCapture(
-                    new Rectangle(srcX, srcY, srcW, srcH)
+            applyStretchMode(dstDC);
+            GDI32Direct.StretchBlt(
+                    dstDC,
+                    0, 0,
+                    dstW, dstH,
+                    desktopDC,
+                    srcX, srcY, srcW, srcH,
+                    GDI32Direct.SRCCOPY
             );
-
-            processFiltered(rawCapture);
-        } catch (Exception e) {
-            Jingle.log(Level.DEBUG, "ThinCapture " + name + " filter error: " + e.getMessage());
+        } finally {
+            User32Direct.ReleaseDC(null, desktopDC);
+            User32Direct.ReleaseDC(framePtr, dstDC);
         }
     }
 
+    // ===== Filtered capture (text extraction with transparency) =====
+
     /**
-     * Window DC filtered method: captures from window DC then filters.
-     * Faster on NVIDIA/Intel but may return black on AMD.
+     * Captures from the window DC (or the group's shared snapshot of it), or from the
+     * desktop DC in AMD compatibility mode, then filters and presents on the layered window.
      */
-    private void tickFilteredWindowDC(WinDef.HWND hwnd) {
+    private void tickFiltered(CaptureContext ctx) {
         try {
-            WinDef.HDC srcDC = User32.INSTANCE.GetDC(hwnd);
-
-            int srcW = captureRegion.width;
-            int srcH = captureRegion.height;
-
-            WinDef.HDC memDC = GDI32Extra.INSTANCE.CreateCompatibleDC(srcDC);
-
-            WinGDI.BITMAPINFO bmi = new WinGDI.BITMAPINFO();
-            bmi.bmiHeader.biSize = bmi.bmiHeader.size();
-            bmi.bmiHeader.biWidth = srcW;
-            bmi.bmiHeader.biHeight = -srcH;
-            bmi.bmiHeader.biPlanes = 1;
-            bmi.bmiHeader.biBitCount = 32;
-            bmi.bmiHeader.biCompression = WinGDI.BI_RGB;
-
-            com.sun.jna.ptr.PointerByReference ppvBits = new com.sun.jna.ptr.PointerByReference();
-            WinDef.HBITMAP hBitmap = com.sun.jna.platform.win32.GDI32.INSTANCE.CreateDIBSection(
-                    memDC, bmi, WinGDI.DIB_RGB_COLORS, ppvBits, null, 0
-            );
-
-            com.sun.jna.platform.win32.WinNT.HANDLE oldBitmap = com.sun.jna.platform.win32.GDI32.INSTANCE.SelectObject(memDC, hBitmap);
-
-            com.sun.jna.platform.win32.GDI32.INSTANCE.BitBlt(
-                    memDC, 0, 0, srcW, srcH,
-                    srcDC, captureRegion.x, captureRegion.y,
-                    0x00CC0020
-            );
-
-            byte[] bgraData = new byte[srcW * srcH * 4];
-            ppvBits.getValue().read(0, bgraData, 0, bgraData.length);
-
-            BufferedImage rawCapture = new BufferedImage(srcW, srcH, BufferedImage.TYPE_INT_ARGB);
-            for (int i = 0; i < srcW * srcH; i++) {
-                int offset = i * 4;
-                int b = bgraData[offset] & 0xFF;
-                int g = bgraData[offset + 1] & 0xFF;
-                int r = bgraData[offset + 2] & 0xFF;
-                rawCapture.setRGB(i % srcW, i / srcW, 0xFF000000 | (r << 16) | (g << 8) | b);
-            }
-
-            com.sun.jna.platform.win32.GDI32.INSTANCE.SelectObject(memDC, oldBitmap);
-            com.sun.jna.platform.win32.GDI32.INSTANCE.DeleteObject(hBitmap);
-            com.sun.jna.platform.win32.GDI32.INSTANCE.DeleteDC(memDC);
-            User32.INSTANCE.ReleaseDC(hwnd, srcDC);
-
-            processFiltered(rawCapture);
+            CaptureSource source = ThinCapture.getOptions().amdCompatMode ? desktopSource : windowSource;
+            long start = System.nanoTime();
+            Object event = CaptureEvents.beginStage();
+            int[] src = source.capture(ctx, captureRegion);
+            CaptureEvents.endStage(event, name, CaptureEvents.CAPTURE, source.getWidth(), source.getHeight());
+            stats.record(FrameStats.CAPTURE, System.nanoTime() - start);
+            if (src == null) return;
+
+            // The presenter draws at the physical pixel size of our frame window,
+            // matching what UpdateLayeredWindow expects
+            refreshFrameRect();
+            pipeline.setParallel(ThinCapture.getOptions().parallelFiltering);
+            pipeline.process(src, source.getWidth(), source.getHeight(), presenter);
         } catch (Exception e) {
             Jingle.log(Level.DEBUG, "ThinCapture " + name + " filter error: " + e.getMessage());
         }
     }
 
+    // ===== Window positioning =====
 
     /**
-     * Shared filtering logic: scales, applies text threshold, sets background.
-     * Uses the physical pixel size of the frame window for output dimensions,
-     * matching what updateLayered/UpdateLayeredWindow expects.
+     * Re-reads the frame window's physical screen rectangle only after it was moved.
+     * The frame is borderless and never activated, so positionCapture is the only thing
+     * that moves it, and the cached rectangle stays valid between moves.
      */
-    private void processFiltered(BufferedImage rawCapture) {
-        // Get the actual physical pixel size of our frame window
-        WinDef.RECT frameRect = new WinDef.RECT();
-        User32.INSTANCE.GetWindowRect(frameHwnd, frameRect);
-        int outW = frameRect.right - frameRect.left;
-        int outH = frameRect.bottom - frameRect.top;
-
-        if (outW <= 0 || outH <= 0) return;
-
-        BufferedImage output = new BufferedImage(outW, outH, BufferedImage.TYPE_INT_ARGB);
-
-        BufferedImage scaled;
-        if (outW != rawCapture.getWidth() || outH != rawCapture.getHeight()) {
-            scaled = new BufferedImage(outW, outH, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = scaled.createGraphics();
-            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-            g2.drawImage(rawCapture, 0, 0, outW, outH, null);
-            g2.dispose();
-        } else {
-            scaled = rawCapture;
-        }
-
-        boolean useBgImage = bgImage != null && !transparentBg;
-        BufferedImage bgScaled = useBgImage ? getScaledBgImage(outW, outH) : null;
-
-        int solidBgArgb;
-        if (transparentBg) {
-            solidBgArgb = 0x00000000;
-        } else {
-            solidBgArgb = (0xFF << 24) | (bgColor.getRed() << 16) | (bgColor.getGreen() << 8) | bgColor.getBlue();
-        }
-
-        for (int y = 0; y < outH; y++) {
-            for (int x = 0; x < outW; x++) {
-                int rgb = scaled.getRGB(x, y);
-                int r = (rgb >> 16) & 0xFF;
-                int g = (rgb >> 8) & 0xFF;
-                int b = rgb & 0xFF;
-
-                if (r >= textThreshold && g >= textThreshold && b >= textThreshold) {
-                    output.setRGB(x, y, 0xFF000000 | (r << 16) | (g << 8) | b);
-                } else {
-                    if (useBgImage && bgScaled != null) {
-                        output.setRGB(x, y, bgScaled.getRGB(x, y));
-                    } else {
-                        output.setRGB(x, y, solidBgArgb);
-                    }
-                }
-            }
-        }
-
-        updateLayered(output, outW, outH);
-    }
-
-    // ===== Layered window update for transparency =====
-
-    private void updateLayered(BufferedImage image, int width, int height) {
-        WinDef.HDC screenDC = com.sun.jna.platform.win32.User32.INSTANCE.GetDC(null);
-        WinDef.HDC memDC = GDI32Extra.INSTANCE.CreateCompatibleDC(screenDC);
-
-        WinGDI.BITMAPINFO bmi = new WinGDI.BITMAPINFO();
-        bmi.bmiHeader.biSize = bmi.bmiHeader.size();
-        bmi.bmiHeader.biWidth = width;
-        bmi.bmiHeader.biHeight = -height;
-        bmi.bmiHeader.biPlanes = 1;
-        bmi.bmiHeader.biBitCount = 32;
-        bmi.bmiHeader.biCompression = WinGDI.BI_RGB;
-
-        com.sun.jna.ptr.PointerByReference ppvBits = new com.sun.jna.ptr.PointerByReference();
-        WinDef.HBITMAP hBitmap = com.sun.jna.platform.win32.GDI32.INSTANCE.CreateDIBSection(
-                memDC, bmi, WinGDI.DIB_RGB_COLORS, ppvBits, null, 0
-        );
-
-        com.sun.jna.platform.win32.WinNT.HANDLE oldBitmap = com.sun.jna.platform.win32.GDI32.INSTANCE.SelectObject(memDC, hBitmap);
-
-        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
-        byte[] bgraData = new byte[width * height * 4];
-        for (int i = 0; i < pixels.length; i++) {
-            int argb = pixels[i];
-            int a = (argb >> 24) & 0xFF;
-            int r = (argb >> 16) & 0xFF;
-            int g = (argb >> 8) & 0xFF;
-            int b = argb & 0xFF;
-
-            r = (r * a) / 255;
-            g = (g * a) / 255;
-            b = (b * a) / 255;
-
-            int offset = i * 4;
-            bgraData[offset] = (byte) b;
-            bgraData[offset + 1] = (byte) g;
-            bgraData[offset + 2] = (byte) r;
-            bgraData[offset + 3] = (byte) a;
-        }
-
-        ppvBits.getValue().write(0, bgraData, 0, bgraData.length);
-
-        WinUser.POINT ptSrc = new WinUser.POINT(0, 0);
-        WinUser.SIZE sizeWnd = new WinUser.SIZE(width, height);
-
-        // Use the window's actual physical screen position from GetWindowRect
-        // instead of manually scaling windowBounds, ensuring consistency
-        WinDef.RECT frameRect = new WinDef.RECT();
-        User32.INSTANCE.GetWindowRect(frameHwnd, frameRect);
-        WinUser.POINT ptDst = new WinUser.POINT(frameRect.left, frameRect.top);
-
-        WinUser.BLENDFUNCTION blend = new WinUser.BLENDFUNCTION();
-        blend.BlendOp = AC_SRC_OVER;
-        blend.BlendFlags = 0;
-        blend.SourceConstantAlpha = (byte) 255;
-        blend.AlphaFormat = AC_SRC_ALPHA;
-
-        com.sun.jna.platform.win32.User32.INSTANCE.UpdateLayeredWindow(
-                frameHwnd,
-                screenDC,
-                ptDst,
-                sizeWnd,
-                memDC,
-                ptSrc,
-                0,
-                blend,
-                ULW_ALPHA
-        );
-
-        com.sun.jna.platform.win32.GDI32.INSTANCE.SelectObject(memDC, oldBitmap);
-        com.sun.jna.platform.win32.GDI32.INSTANCE.DeleteObject(hBitmap);
-        com.sun.jna.platform.win32.GDI32.INSTANCE.DeleteDC(memDC);
-        com.sun.jna.platform.win32.User32.INSTANCE.ReleaseDC(null, screenDC);
+    private void refreshFrameRect() {
+        if (frameRectValid) return;
+        // Mark valid first so an invalidation racing with the query isn't lost
+        frameRectValid = true;
+        User32Direct.GetWindowRect(framePtr, frameRect);
+        frameRect.read();
     }
 
-    // ===== Window positioning =====
-
     public void positionCapture(Rectangle screenPos, Rectangle capture) {
         this.windowBounds = screenPos;
         this.captureRegion = capture;
+        pipeline.invalidate();
 
         if (textOnly) {
             enableLayeredWindow();
@@ -482,19 +334,20 @@ public class CaptureFrame extends JFrame {
 
         // SetWindowPos expects physical screen coords.
         // screenPos comes from the region selector in Java logical coords.
-        // On Java 9+ at non-100% DPI, logical != physical, so we must convert.
-        double displayScaleX = getDisplayScale(true);
-        double displayScaleY = getDisplayScale(false);
+        // On Java 9+ at non-100% DPI, logical != physical, so we must convert
+        // with the scale of the monitor the projector is placed on.
+        Rectangle physical = DisplayTransforms.toPhysical(screenPos);
 
         User32.INSTANCE.SetWindowPos(
                 frameHwnd,
                 new WinDef.HWND(new Pointer(0)),
-                (int) (screenPos.x * displayScaleX),
-                (int) (screenPos.y * displayScaleY),
-                (int) (screenPos.width * displayScaleX),
-                (int) (screenPos.height * displayScaleY),
+                physical.x,
+                physical.y,
+                physical.width,
+                physical.height,
                 SHOW_FLAGS
         );
+        frameRectValid = false;
     }
 
     public void showCapture() {
@@ -502,7 +355,13 @@ public class CaptureFrame extends JFrame {
         Jingle.log(Level.DEBUG, "Showing ThinCapture " + name + "...");
         com.sun.jna.platform.win32.User32.INSTANCE.ShowWindow(frameHwnd, SW_SHOWNOACTIVATE);
         this.currentlyShowing = true;
-        tick();
+        frameRectValid = false;
+        pipeline.invalidate();
+        // Draw right away, but on the tick thread that owns the frame's buffers
+        ThinCapture.EXECUTOR.execute(() -> {
+            CaptureContext ctx = new CaptureContext();
+            if (ctx.resolve()) tick(ctx);
+        });
     }
 
     public void hideCapture() {
@@ -511,14 +370,6 @@ public class CaptureFrame extends JFrame {
         com.sun.jna.platform.win32.User32.INSTANCE.ShowWindow(frameHwnd, SW_HIDE);
     }
 
-    public void restartDrawingTask(int fpsLimit) {
-        if (redrawTask != null) {
-            redrawTask.cancel(false);
-        }
-        long delay = 1_000_000_000L / fpsLimit;
-        redrawTask = ThinCapture.EXECUTOR.scheduleAtFixedRate(this::tick, delay, delay, TimeUnit.NANOSECONDS);
-    }
-
     @Override
     public boolean isShowing() {
         return currentlyShowing;
@@ -526,47 +377,19 @@ public class CaptureFrame extends JFrame {
 
     @Override
     public void dispose() {
-        if (redrawTask != null) redrawTask.cancel(false);
+        // Release on the tick thread so an in-flight tick never sees its buffers vanish
+        if (ThinCapture.EXECUTOR.isShutdown()) {
+            releaseResources();
+        } else {
+            ThinCapture.EXECUTOR.execute(this::releaseResources);
+        }
         super.dispose();
     }
 
-    // ===== Utility methods =====
-
-    private static double getDisplayScale(boolean horizontal) {
-        java.awt.geom.AffineTransform tx = GraphicsEnvironment.getLocalGraphicsEnvironment()
-                .getDefaultScreenDevice().getDefaultConfiguration()
-                .getDefaultTransform();
-        return horizontal ? tx.getScaleX() : tx.getScaleY();
-    }
-
-    /**
-     * Computes the client area's physical screen position and size for a given window.
-     * Uses ClientToScreen to get the exact client origin and bottom-right, avoiding
-     * AdjustWindowRectEx DPI issues on per-monitor DPI-aware processes (Java 9+).
-     *
-     * @return [clientScreenX, clientScreenY, physClientW, physClientH, clientW, clientH]
-     */
-    private static int[] getClientScreenInfo(WinDef.HWND hwnd) {
-        // Get client area size in client (logical) pixels
-        WinDef.RECT clientRect = new WinDef.RECT();
-        User32.INSTANCE.GetClientRect(hwnd, clientRect);
-        int clientW = clientRect.right - clientRect.left;
-        int clientH = clientRect.bottom - clientRect.top;
-
-        // Use ClientToScreen to get the physical screen position of the client area.
-        // This is always correct regardless of DPI scaling, unlike computing from
-        // GetWindowRect + AdjustWindowRectEx which gives wrong insets at non-100% DPI.
-        WinDef.POINT topLeft = new WinDef.POINT(0, 0);
-        xyz.vibzz.jingle.thincapture.win32.User32Extra.INSTANCE.ClientToScreen(hwnd, topLeft);
-
-        WinDef.POINT bottomRight = new WinDef.POINT(clientW, clientH);
-        xyz.vibzz.jingle.thincapture.win32.User32Extra.INSTANCE.ClientToScreen(hwnd, bottomRight);
-
-        int clientScreenX = topLeft.x;
-        int clientScreenY = topLeft.y;
-        int physClientW = bottomRight.x - topLeft.x;
-        int physClientH = bottomRight.y - topLeft.y;
-
-        return new int[]{clientScreenX, clientScreenY, physClientW, physClientH, clientW, clientH};
+    private void releaseResources() {
+        pipeline.release();
+        windowSource.release();
+        desktopSource.release();
+        presenter.release();
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package xyz.vibzz.jingle.thincapture.frame;
+
+import org.apache.logging.log4j.Level;
+import xyz.duncanruns.jingle.Jingle;
+import xyz.vibzz.jingle.thincapture.ThinCapture;
+import xyz.vibzz.jingle.thincapture.capture.CaptureContext;
+import xyz.vibzz.jingle.thincapture.capture.SourceSnapshot;
+import xyz.vibzz.jingle.thincapture.util.FramePacer;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Drives every capture frame of one mode (Thin BT or Planar Abuse) from a single paced
+ * tick. Shared game-window state is resolved once per tick and the showing frames are
+ * then drawn in list order, so all overlays of a mode show the same game frame and the
+ * executor wakes once per interval regardless of how many captures there are.
+ */
+public class CaptureGroup {
+    private final List<CaptureFrame> frames;
+    private final FramePacer pacer;
+    private final CaptureContext context = new CaptureContext();
+    private final SourceSnapshot snapshot = new SourceSnapshot();
+    private final Rectangle union = new Rectangle();
+
+    /**
+     * @param frames the mode's frame list; must be safe to iterate while other threads
+     *               add or remove frames (e.g. a CopyOnWriteArrayList)
+     */
+    public CaptureGroup(String name, List<CaptureFrame> frames) {
+        this.frames = frames;
+        this.pacer = new FramePacer(ThinCapture.EXECUTOR, name, this::tick);
+    }
+
+    /**
+     * Starts (or restarts) the group tick at the given rate.
+     */
+    public void start(int fpsLimit) {
+        pacer.start(fpsLimit);
+    }
+
+    public void stop() {
+        pacer.stop();
+    }
+
+    /**
+     * Stops ticking and frees the shared snapshot on the tick thread.
+     */
+    public void dispose() {
+        pacer.stop();
+        if (ThinCapture.EXECUTOR.isShutdown()) {
+            snapshot.release();
+        } else {
+            ThinCapture.EXECUTOR.execute(snapshot::release);
+        }
+    }
+
+    public FramePacer getPacer() {
+        return pacer;
+    }
+
+    private void tick() {
+        boolean anyShowing = false;
+        for (CaptureFrame f : frames) {
+            if (f.isShowing()) {
+                anyShowing = true;
+                break;
+            }
+        }
+        if (!anyShowing || !context.resolve()) return;
+
+        // Window DC reads go through one shared grab; AMD mode reads the desktop per frame
+        if (!ThinCapture.getOptions().amdCompatMode && grabSnapshot()) {
+            context.setSnapshot(snapshot);
+        }
+
+        for (CaptureFrame f : frames) {
+            if (!f.isShowing()) continue;
+            try {
+                f.tick(context);
+            } catch (RuntimeException e) {
+                // One broken capture shouldn't stop the rest of the group from drawing
+                Jingle.log(Level.DEBUG, "ThinCapture " + f.getCaptureName() + " tick error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Grabs the union of all showing frames' capture regions in one BitBlt.
+     */
+    private boolean grabSnapshot() {
+        union.setBounds(0, 0, 0, 0);
+        for (CaptureFrame f : frames) {
+            if (!f.isShowing()) continue;
+            Rectangle r = f.getCaptureRegion();
+            if (r.isEmpty()) continue;
+            if (union.isEmpty()) union.setBounds(r);
+            else union.add(r);
+        }
+        if (union.isEmpty()) {
+            snapshot.invalidate();
+            return false;
+        }
+        return snapshot.grab(context.getHwndPointer(), union);
+    }
+}
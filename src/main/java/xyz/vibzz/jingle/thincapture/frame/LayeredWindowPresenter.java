@@ -0,0 +1,113 @@
+package xyz.vibzz.jingle.thincapture.frame;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinUser;
+import xyz.vibzz.jingle.thincapture.pipeline.FramePresenter;
+import xyz.vibzz.jingle.thincapture.win32.DibSection;
+import xyz.vibzz.jingle.thincapture.win32.User32Direct;
+
+import java.nio.IntBuffer;
+
+/**
+ * Presents filtered frames on a capture window with UpdateLayeredWindow, drawing into a
+ * DIB section that is kept between ticks. The output size and position are the window's
+ * physical screen rectangle, which the owning {@link CaptureFrame} keeps up to date.
+ */
+class LayeredWindowPresenter implements FramePresenter {
+    private static final int ULW_ALPHA = 0x00000002;
+    private static final int AC_SRC_OVER = 0x00;
+    private static final int AC_SRC_ALPHA = 0x01;
+
+    private final Pointer hwnd;
+    private final WinDef.RECT frameRect;
+    private final DibSection presentDib = new DibSection();
+
+    // UpdateLayeredWindow arguments, allocated once and only written to native memory when
+    // a value changes. Auto-sync is off so JNA doesn't reflect over them on every call.
+    private final WinUser.POINT ptSrc = new WinUser.POINT(0, 0);
+    private final WinUser.POINT ptDst = new WinUser.POINT();
+    private final WinUser.SIZE sizeWnd = new WinUser.SIZE();
+    private final WinUser.BLENDFUNCTION blend = new WinUser.BLENDFUNCTION();
+
+    /**
+     * @param frameRect the window's physical screen rectangle, refreshed by the owner
+     */
+    LayeredWindowPresenter(Pointer hwnd, WinDef.RECT frameRect) {
+        this.hwnd = hwnd;
+        this.frameRect = frameRect;
+
+        ptSrc.setAutoSynch(false);
+        ptDst.setAutoSynch(false);
+        sizeWnd.setAutoSynch(false);
+        blend.setAutoSynch(false);
+
+        blend.BlendOp = AC_SRC_OVER;
+        blend.BlendFlags = 0;
+        blend.SourceConstantAlpha = (byte) 255;
+        blend.AlphaFormat = AC_SRC_ALPHA;
+        blend.write();
+        ptSrc.write();
+        // Force the first present to write real values
+        sizeWnd.cx = -1;
+        ptDst.x = Integer.MIN_VALUE;
+    }
+
+    @Override
+    public int getWidth() {
+        return frameRect.right - frameRect.left;
+    }
+
+    @Override
+    public int getHeight() {
+        return frameRect.bottom - frameRect.top;
+    }
+
+    @Override
+    public IntBuffer getPixels() {
+        return presentDib.ensure(getWidth(), getHeight()) ? presentDib.getPixels() : null;
+    }
+
+    @Override
+    public void present() {
+        int width = presentDib.getWidth();
+        int height = presentDib.getHeight();
+        if (sizeWnd.cx != width || sizeWnd.cy != height) {
+            sizeWnd.cx = width;
+            sizeWnd.cy = height;
+            sizeWnd.write();
+        }
+
+        // Use the window's actual physical screen position from GetWindowRect
+        // instead of manually scaling windowBounds, ensuring consistency.
+        if (ptDst.x != frameRect.left || ptDst.y != frameRect.top) {
+            ptDst.x = frameRect.left;
+            ptDst.y = frameRect.top;
+            ptDst.write();
+        }
+
+        // A null destination DC makes UpdateLayeredWindow use the screen's default palette,
+        // so there's no need to acquire and release the screen DC every frame.
+        User32Direct.UpdateLayeredWindow(
+                hwnd,
+                null,
+                ptDst,
+                sizeWnd,
+                presentDib.getDC().getPointer(),
+                ptSrc,
+                0,
+                blend,
+                ULW_ALPHA
+        );
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return presentDib.getMemoryBytes();
+    }
+
+    @Override
+    public void release() {
+        presentDib.release();
+    }
+}
@@ -0,0 +1,93 @@
+package xyz.vibzz.jingle.thincapture.jfr;
+
+/**
+ * Java Flight Recorder events for the capture pipeline, the resize check and background
+ * image loads, so overlay stutter can be lined up with GC and JNA time in a recording.
+ * <p>
+ * The JFR event classes are only loaded if {@code jdk.jfr} exists at runtime; otherwise,
+ * and while no recording has the events enabled, every method is a no-op that allocates
+ * nothing. Usage: {@code Object e = begin...(); ... end...(e, ...);} where {@code e} may be null.
+ */
+public final class CaptureEvents {
+    public static final String TICK = "tick";
+    public static final String CAPTURE = "capture";
+    public static final String FILTER = "filter";
+    public static final String SCALE = "scale";
+    public static final String PRESENT = "present";
+
+    private static final EventSink SINK = load();
+
+    private CaptureEvents() {
+    }
+
+    private static EventSink load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (EventSink) Class.forName("xyz.vibzz.jingle.thincapture.jfr.JfrEventSink")
+                    .getDeclaredConstructor().newInstance();
+        } catch (Throwable t) {
+            // No JFR on this JVM (e.g. older Java 8 builds)
+            return null;
+        }
+    }
+
+    /**
+     * @return whether this JVM supports JFR at all
+     */
+    public static boolean isAvailable() {
+        return SINK != null;
+    }
+
+    /**
+     * Starts timing a pipeline stage. Which stage it was (one of the constants above) is
+     * given when it ends.
+     */
+    public static Object beginStage() {
+        return SINK != null ? SINK.beginStage() : null;
+    }
+
+    public static void endStage(Object event, String frame, String stage, int width, int height) {
+        if (event != null) SINK.endStage(event, frame, stage, width, height);
+    }
+
+    public static Object beginResizeCheck() {
+        return SINK != null ? SINK.beginResizeCheck() : null;
+    }
+
+    /**
+     * @param mode the capture mode showing after the check: "thin", "planar" or "none"
+     */
+    public static void endResizeCheck(Object event, int clientWidth, int clientHeight, String mode) {
+        if (event != null) SINK.endResizeCheck(event, clientWidth, clientHeight, mode);
+    }
+
+    public static Object beginImageLoad() {
+        return SINK != null ? SINK.beginImageLoad() : null;
+    }
+
+    /**
+     * @param width  decoded width, 0 if the load failed
+     * @param height decoded height, 0 if the load failed
+     */
+    public static void endImageLoad(Object event, String path, int width, int height) {
+        if (event != null) SINK.endImageLoad(event, path, width, height);
+    }
+
+    /**
+     * Bridge to the JFR event classes, so this class never links against {@code jdk.jfr}.
+     */
+    interface EventSink {
+        /** @return the started event, or null if its type isn't enabled in any recording */
+        Object beginStage();
+
+        void endStage(Object event, String frame, String stage, int width, int height);
+
+        Object beginResizeCheck();
+
+        void endResizeCheck(Object event, int clientWidth, int clientHeight, String mode);
+
+        Object beginImageLoad();
+
+        void endImageLoad(Object event, String path, int width, int height);
+    }
+}
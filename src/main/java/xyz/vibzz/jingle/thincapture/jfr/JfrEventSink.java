@@ -0,0 +1,128 @@
+package xyz.vibzz.jingle.thincapture.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR-backed {@link CaptureEvents.EventSink}. Only loaded reflectively, after
+ * {@code jdk.jfr} was found. Events skip stack traces, since stage events fire several
+ * times per frame.
+ */
+final class JfrEventSink implements CaptureEvents.EventSink {
+    private final EventType stageType = EventType.getEventType(StageEvent.class);
+    private final EventType resizeType = EventType.getEventType(ResizeCheckEvent.class);
+    private final EventType imageType = EventType.getEventType(ImageLoadEvent.class);
+
+    @Override
+    public Object beginStage() {
+        if (!stageType.isEnabled()) return null;
+        StageEvent event = new StageEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endStage(Object event, String frame, String stage, int width, int height) {
+        StageEvent e = (StageEvent) event;
+        e.end();
+        if (!e.shouldCommit()) return;
+        e.frame = frame;
+        e.stage = stage;
+        e.width = width;
+        e.height = height;
+        e.pixels = (long) width * height;
+        e.commit();
+    }
+
+    @Override
+    public Object beginResizeCheck() {
+        if (!resizeType.isEnabled()) return null;
+        ResizeCheckEvent event = new ResizeCheckEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endResizeCheck(Object event, int clientWidth, int clientHeight, String mode) {
+        ResizeCheckEvent e = (ResizeCheckEvent) event;
+        e.end();
+        if (!e.shouldCommit()) return;
+        e.clientWidth = clientWidth;
+        e.clientHeight = clientHeight;
+        e.mode = mode;
+        e.commit();
+    }
+
+    @Override
+    public Object beginImageLoad() {
+        if (!imageType.isEnabled()) return null;
+        ImageLoadEvent event = new ImageLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endImageLoad(Object event, String path, int width, int height) {
+        ImageLoadEvent e = (ImageLoadEvent) event;
+        e.end();
+        if (!e.shouldCommit()) return;
+        e.path = path;
+        e.width = width;
+        e.height = height;
+        e.pixels = (long) width * height;
+        e.commit();
+    }
+
+    @Name("xyz.vibzz.thincapture.Stage")
+    @Label("Capture Stage")
+    @Category({"ThinCapture"})
+    @StackTrace(false)
+    @Description("One stage of a capture frame's tick")
+    static final class StageEvent extends Event {
+        @Label("Frame")
+        String frame;
+        @Label("Stage")
+        String stage;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("Pixels")
+        long pixels;
+    }
+
+    @Name("xyz.vibzz.thincapture.ResizeCheck")
+    @Label("Resize Check")
+    @Category({"ThinCapture"})
+    @StackTrace(false)
+    @Description("ThinCapture's per-tick check of the Minecraft window size")
+    static final class ResizeCheckEvent extends Event {
+        @Label("Client Width")
+        int clientWidth;
+        @Label("Client Height")
+        int clientHeight;
+        @Label("Mode")
+        String mode;
+    }
+
+    @Name("xyz.vibzz.thincapture.ImageLoad")
+    @Label("Background Image Load")
+    @Category({"ThinCapture"})
+    @StackTrace(false)
+    @Description("Reading and decoding a background image")
+    static final class ImageLoadEvent extends Event {
+        @Label("Path")
+        String path;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("Pixels")
+        long pixels;
+    }
+}
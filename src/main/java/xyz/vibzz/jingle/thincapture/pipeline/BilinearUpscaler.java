@@ -0,0 +1,115 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import java.nio.IntBuffer;
+
+/**
+ * Integer bilinear upscaler. Source positions and 8-bit fixed-point weights for every output
+ * column and row are precomputed per size, and each source row is interpolated horizontally
+ * only once into a cached row pair, so a tick is two packed lerps and a composite per pixel.
+ */
+final class BilinearUpscaler implements Upscaler {
+    private int srcW = -1;
+    private int srcH = -1;
+    private int outW = -1;
+    private int outH = -1;
+
+    private int[] x0;
+    private int[] x1;
+    private int[] fx;
+    private int[] y0;
+    private int[] y1;
+    private int[] fy;
+    private int[] rowA;
+    private int[] rowB;
+
+    @Override
+    public void upscale(int[] fg, int srcW, int srcH,
+                        IntBuffer dst, int outW, int outH,
+                        int[] bgPre, int solidPre) {
+        ensure(srcW, srcH, outW, outH);
+
+        int[] a = rowA;
+        int[] b = rowB;
+        int aSy = -1;
+        int bSy = -1;
+        for (int y = 0; y < outH; y++) {
+            int sy0 = y0[y];
+            int sy1 = y1[y];
+            int f = fy[y];
+
+            // Consecutive output rows mostly share source rows, so the horizontal pass is reused
+            if (aSy != sy0) {
+                if (bSy == sy0) {
+                    int[] t = a;
+                    a = b;
+                    b = t;
+                    bSy = aSy;
+                } else {
+                    interpolateRow(fg, sy0 * srcW, a, outW);
+                }
+                aSy = sy0;
+            }
+            if (f != 0 && bSy != sy1) {
+                interpolateRow(fg, sy1 * srcW, b, outW);
+                bSy = sy1;
+            }
+
+            int o = y * outW;
+            for (int x = 0; x < outW; x++, o++) {
+                int v = f == 0 ? a[x] : Upscalers.lerp(a[x], b[x], f);
+                dst.put(o, Upscalers.over(v, bgPre != null ? bgPre[o] : solidPre));
+            }
+        }
+        rowA = a;
+        rowB = b;
+    }
+
+    private void interpolateRow(int[] fg, int rowOff, int[] row, int outW) {
+        for (int x = 0; x < outW; x++) {
+            row[x] = Upscalers.lerp(fg[rowOff + x0[x]], fg[rowOff + x1[x]], fx[x]);
+        }
+    }
+
+    private void ensure(int srcW, int srcH, int outW, int outH) {
+        if (srcW == this.srcW && srcH == this.srcH && outW == this.outW && outH == this.outH) return;
+        x0 = new int[outW];
+        x1 = new int[outW];
+        fx = new int[outW];
+        y0 = new int[outH];
+        y1 = new int[outH];
+        fy = new int[outH];
+        buildAxis(srcW, outW, x0, x1, fx);
+        buildAxis(srcH, outH, y0, y1, fy);
+        rowA = new int[outW];
+        rowB = new int[outW];
+        this.srcW = srcW;
+        this.srcH = srcH;
+        this.outW = outW;
+        this.outH = outH;
+    }
+
+    /**
+     * Pixel-centre aligned sample positions: output {@code i} samples source
+     * {@code (i + 0.5) * srcLen / outLen - 0.5}, clamped to the edge pixels.
+     */
+    private static void buildAxis(int srcLen, int outLen, int[] i0, int[] i1, int[] f) {
+        for (int i = 0; i < outLen; i++) {
+            long pos = (2L * i + 1) * srcLen * 256 / (2L * outLen) - 128;
+            int s = pos <= 0 ? 0 : (int) (pos >> 8);
+            int w = pos <= 0 ? 0 : (int) (pos & 0xFF);
+            if (s >= srcLen - 1) {
+                s = srcLen - 1;
+                w = 0;
+            }
+            i0[i] = s;
+            i1[i] = Math.min(s + 1, srcLen - 1);
+            f[i] = w;
+        }
+    }
+
+    @Override
+    public void release() {
+        x0 = x1 = fx = y0 = y1 = fy = rowA = rowB = null;
+        srcW = srcH = outW = outH = -1;
+    }
+}
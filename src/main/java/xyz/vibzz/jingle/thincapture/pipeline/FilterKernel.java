@@ -0,0 +1,136 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+/**
+ * Fused text-filter kernel: nearest-neighbour scaling, text filter test, background
+ * selection and premultiplication in a single pass. Output pixels are premultiplied
+ * ARGB ints, which on a little-endian IntBuffer are exactly the BGRA byte layout a
+ * 32-bit top-down DIB section expects, so the destination can be the DIB memory itself.
+ * <p>
+ * The {@code *Rect} variants only produce the output rectangle {@code [x0, x1) x [y0, y1)},
+ * so disjoint row bands can run concurrently and unchanged regions can be skipped.
+ * All variants take the source/output mapping from prebuilt {@link ScaleTables}.
+ */
+public final class FilterKernel {
+    private FilterKernel() {
+    }
+
+    /**
+     * @param src      source pixels (ARGB or xRGB, alpha ignored), row stride {@code srcW}
+     * @param dst      destination of {@code outW * outH} premultiplied ARGB pixels
+     * @param filter   compiled text filter deciding which pixels are kept
+     * @param bgPre    premultiplied background image of the output size, or null for {@code solidPre}
+     * @param solidPre premultiplied solid background colour (0 for fully transparent)
+     * @param scale    nearest-neighbour tables built for this source and output size
+     */
+    public static void filterToBgra(int[] src, int srcW, int srcH,
+                                    IntBuffer dst, int outW, int outH,
+                                    CompiledFilter filter, int[] bgPre, int solidPre, ScaleTables scale) {
+        filterRect(src, srcW, dst, outW, filter, bgPre, solidPre, scale, 0, outW, 0, outH);
+    }
+
+    public static void filterRect(int[] src, int srcW,
+                                  IntBuffer dst, int outW,
+                                  CompiledFilter filter, int[] bgPre, int solidPre, ScaleTables scale,
+                                  int x0, int x1, int y0, int y1) {
+        int[] xIndex = scale.xIndex();
+        int[] yIndex = scale.yIndex();
+        for (int y = y0; y < y1; y++) {
+            int rowOff = yIndex[y] * srcW;
+            int o = y * outW + x0;
+            for (int x = x0; x < x1; x++, o++) {
+                int p = src[rowOff + xIndex[x]];
+                int m = filter.mask(p);
+                int bg = bgPre != null ? bgPre[o] : solidPre;
+                dst.put(o, ((p | 0xFF000000) & m) | (bg & ~m));
+            }
+        }
+    }
+
+    /**
+     * Classifies {@code n} source pixels without scaling: text pixels become opaque, everything
+     * else 0. The result is a premultiplied foreground layer for the {@link Upscaler}s.
+     */
+    public static void classify(int[] src, int[] fg, int n, CompiledFilter filter) {
+        for (int i = 0; i < n; i++) {
+            int p = src[i];
+            fg[i] = (p | 0xFF000000) & filter.mask(p);
+        }
+    }
+
+    /**
+     * Same output as {@link #filterToBgra}, but the text/background decision is made once per
+     * source pixel and the result is then expanded to the output size. Much cheaper when
+     * upscaling, since every output row that maps to the same source row is a plain copy.
+     *
+     * @param fg  scratch of at least {@code srcW * srcH} entries for the classified source
+     * @param row scratch of at least {@code outW} entries for one expanded output row
+     */
+    public static void filterAtSourceToBgra(int[] src, int srcW, int srcH,
+                                            IntBuffer dst, int outW, int outH,
+                                            CompiledFilter filter, int[] bgPre, int solidPre,
+                                            int[] fg, int[] row, ScaleTables scale) {
+        filterAtSourceRect(src, srcW, dst, outW, filter, bgPre, solidPre, fg, row, scale, 0, outW, 0, outH);
+        ((Buffer) dst).clear(); // Buffer cast keeps the Java 8 method signature
+    }
+
+    /**
+     * Rectangle variant of {@link #filterAtSourceToBgra}. Only classifies the source pixels the
+     * rectangle needs; neighbouring bands may classify a shared boundary row twice, which is
+     * harmless since they write identical values. Moves {@code dst}'s position, so concurrent
+     * bands must each be given their own {@link IntBuffer#duplicate() duplicate}.
+     */
+    public static void filterAtSourceRect(int[] src, int srcW,
+                                          IntBuffer dst, int outW,
+                                          CompiledFilter filter, int[] bgPre, int solidPre,
+                                          int[] fg, int[] row, ScaleTables scale,
+                                          int x0, int x1, int y0, int y1) {
+        if (x0 >= x1 || y0 >= y1) return;
+        int[] xIndex = scale.xIndex();
+        int[] yIndex = scale.yIndex();
+
+        // Text pixels become opaque, everything else 0, so alpha doubles as the text mask
+        int sx0 = xIndex[x0];
+        int sx1 = xIndex[x1 - 1] + 1;
+        int sy0 = yIndex[y0];
+        int sy1 = yIndex[y1 - 1] + 1;
+        for (int sy = sy0; sy < sy1; sy++) {
+            int i = sy * srcW + sx0;
+            int end = sy * srcW + sx1;
+            for (; i < end; i++) {
+                int p = src[i];
+                fg[i] = (p | 0xFF000000) & filter.mask(p);
+            }
+        }
+
+        int w = x1 - x0;
+        int rowSy = -1;
+        for (int y = y0; y < y1; y++) {
+            int sy = yIndex[y];
+            if (sy != rowSy) {
+                int rowOff = sy * srcW;
+                for (int x = x0; x < x1; x++) {
+                    int v = fg[rowOff + xIndex[x]];
+                    row[x] = v != 0 || bgPre != null ? v : solidPre;
+                }
+                rowSy = sy;
+            }
+
+            int o = y * outW + x0;
+            if (bgPre == null) {
+                // Rows sampling the same source row are identical: one bulk copy each
+                ((Buffer) dst).position(o);
+                dst.put(row, x0, w);
+            } else {
+                for (int x = x0; x < x1; x++, o++) {
+                    int v = row[x];
+                    dst.put(o, v != 0 ? v : bgPre[o]);
+                }
+            }
+        }
+    }
+}
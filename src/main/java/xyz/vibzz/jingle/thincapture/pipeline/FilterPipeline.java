@@ -0,0 +1,268 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+import xyz.vibzz.jingle.thincapture.filter.FilterChain;
+import xyz.vibzz.jingle.thincapture.jfr.CaptureEvents;
+import xyz.vibzz.jingle.thincapture.util.FrameStats;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.IntBuffer;
+
+/**
+ * The filtered capture path from source pixels to a presented frame: change detection,
+ * text filtering, scaling and background compositing. Pure Java, so it runs the same
+ * behind a layered window or headless with a {@link MemoryPresenter}.
+ * <p>
+ * Settings may be changed from any thread, e.g. the Swing thread or the resize check;
+ * they are volatile and {@link #process} reads each one once per tick. {@link #process}
+ * and {@link #release()} must only be called from the thread that runs the capture ticks,
+ * which also owns the scaled background.
+ */
+public class FilterPipeline {
+    private final FrameBuffers buffers = new FrameBuffers();
+    private final TileTracker tiles = new TileTracker();
+    private final ScaleTables scale = new ScaleTables();
+
+    private volatile CompiledFilter filter = FilterChain.threshold(200);
+    private volatile boolean transparentBg = true;
+    private volatile Color bgColor = Color.BLACK;
+    private volatile BufferedImage bgImage = null;
+    private volatile Upscaler upscaler = null;
+    private volatile boolean parallel = false;
+    private volatile FrameStats stats = null;
+    private volatile String name = "";
+
+    // Tick thread only, apart from the memory readout. scaledFor is the image the pixels
+    // were scaled from, so a background swapped mid-scale is never mistaken for the new one.
+    private volatile int[] scaledBgPixels = null;
+    private BufferedImage scaledFor = null;
+    private int lastBgScaleW = -1;
+    private int lastBgScaleH = -1;
+
+    // Identity of the presenter's pixel memory at the last present; a new buffer means
+    // nothing drawn before is in it any more
+    private IntBuffer lastDst = null;
+
+    public void setFilter(CompiledFilter filter) {
+        this.filter = filter;
+        tiles.invalidate();
+    }
+
+    /**
+     * @param image background image scaled to the output, or null for a solid {@code color}.
+     *              Ignored when {@code transparent}.
+     */
+    public void setBackground(boolean transparent, Color color, BufferedImage image) {
+        this.transparentBg = transparent;
+        this.bgColor = color;
+        this.bgImage = image;
+        tiles.invalidate();
+    }
+
+    /**
+     * @param upscaler smoothing upscaler, or null for nearest-neighbour scaling
+     */
+    public void setUpscaler(Upscaler upscaler) {
+        this.upscaler = upscaler;
+        tiles.invalidate();
+    }
+
+    /**
+     * Splits filtering of large frames into bands on {@link ParallelFilter}'s pool.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Names the capture this pipeline draws, for its profiling events.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param stats where to record filter and present times, or null
+     */
+    public void setStats(FrameStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Forces the next {@link #process} to redraw everything, e.g. after the presenter moved.
+     */
+    public void invalidate() {
+        tiles.invalidate();
+    }
+
+    /**
+     * Filters one source frame into the presenter's pixels and presents it. Skips the whole
+     * tick when no part of the source changed, since the presenter keeps showing the last frame.
+     *
+     * @param src xRGB source pixels with a row stride of {@code srcW}
+     * @return whether a frame was presented
+     */
+    public boolean process(int[] src, int srcW, int srcH, FramePresenter presenter) {
+        int outW = presenter.getWidth();
+        int outH = presenter.getHeight();
+        if (outW <= 0 || outH <= 0 || srcW <= 0 || srcH <= 0) return false;
+
+        IntBuffer dst = presenter.getPixels();
+        if (dst == null) return false;
+        long start = System.nanoTime();
+        Object event = CaptureEvents.beginStage();
+        if (dst != lastDst) {
+            lastDst = dst;
+            tiles.invalidate();
+        }
+
+        buffers.ensureSource(srcW, srcH);
+        buffers.ensureOutput(outW, outH);
+        scale.ensure(srcW, srcH, outW, outH);
+
+        // Static content (F3 text, pie chart) often doesn't change for many frames;
+        // the layered window keeps showing the last present, so skip the whole tick.
+        int dirtyTiles = tiles.update(src, srcW, srcH);
+        if (dirtyTiles == 0) {
+            CaptureEvents.endStage(event, name, CaptureEvents.FILTER, srcW, srcH);
+            FrameStats stats = this.stats;
+            if (stats != null) stats.record(FrameStats.FILTER, System.nanoTime() - start);
+            return false;
+        }
+
+        CompiledFilter filter = this.filter;
+        boolean transparentBg = this.transparentBg;
+        BufferedImage bgImage = this.bgImage;
+        int[] bgPre = bgImage != null && !transparentBg ? getScaledBgPixels(bgImage, outW, outH) : null;
+        int solidPre = transparentBg ? 0x00000000 : 0xFF000000 | (bgColor.getRGB() & 0xFFFFFF);
+
+        int bands = parallel ? ParallelFilter.bandCount(outW, outH) : 1;
+        boolean atSource = (long) outW * outH > (long) srcW * srcH;
+        Upscaler up = upscaler;
+
+        if (up != null && atSource) {
+            // Smoothing scalers blend neighbouring pixels, so they always redo the full frame
+            FilterKernel.classify(src, buffers.sourceMask(), srcW * srcH, filter);
+            CaptureEvents.endStage(event, name, CaptureEvents.FILTER, srcW, srcH);
+            event = CaptureEvents.beginStage();
+            up.upscale(buffers.sourceMask(), srcW, srcH, dst, outW, outH, bgPre, solidPre);
+            CaptureEvents.endStage(event, name, CaptureEvents.SCALE, outW, outH);
+        } else if (dirtyTiles * 2 <= tiles.getTileCount()) {
+            filterDirtyTiles(src, srcW, srcH, dst, outW, atSource, filter, bgPre, solidPre);
+        } else if (atSource && bands > 1) {
+            ParallelFilter.filterAtSourceToBgra(
+                    src, srcW,
+                    dst, outW, outH,
+                    filter, bgPre, solidPre,
+                    buffers.sourceMask(), buffers.bandRows(bands), scale, bands
+            );
+        } else if (atSource) {
+            // Upscaling: decide text/background once per source pixel, then replicate
+            FilterKernel.filterAtSourceToBgra(
+                    src, srcW, srcH,
+                    dst, outW, outH,
+                    filter, bgPre, solidPre,
+                    buffers.sourceMask(), buffers.row(), scale
+            );
+        } else if (bands > 1) {
+            ParallelFilter.filterToBgra(
+                    src, srcW,
+                    dst, outW, outH,
+                    filter, bgPre, solidPre, scale, bands
+            );
+        } else {
+            FilterKernel.filterToBgra(
+                    src, srcW, srcH,
+                    dst, outW, outH,
+                    filter, bgPre, solidPre, scale
+            );
+        }
+
+        if (up == null || !atSource) {
+            // The nearest-neighbour kernels filter and scale in one pass
+            CaptureEvents.endStage(event, name, CaptureEvents.FILTER, outW, outH);
+        }
+        long filtered = System.nanoTime();
+        event = CaptureEvents.beginStage();
+        presenter.present();
+        CaptureEvents.endStage(event, name, CaptureEvents.PRESENT, outW, outH);
+        FrameStats stats = this.stats;
+        if (stats != null) {
+            stats.record(FrameStats.FILTER, filtered - start);
+            stats.record(FrameStats.PRESENT, System.nanoTime() - filtered);
+        }
+        return true;
+    }
+
+    /**
+     * Re-filters only the output regions whose source tiles changed since the last tick,
+     * leaving the rest of the presenter's pixels as they were.
+     */
+    private void filterDirtyTiles(int[] src, int srcW, int srcH, IntBuffer dst, int outW, boolean atSource,
+                                  CompiledFilter filter, int[] bgPre, int solidPre) {
+        int[] xStart = scale.xStart();
+        int[] yStart = scale.yStart();
+
+        for (int ty = 0; ty < tiles.getRows(); ty++) {
+            int y0 = yStart[ty * TileTracker.TILE];
+            int y1 = yStart[Math.min((ty + 1) * TileTracker.TILE, srcH)];
+            for (int tx = 0; tx < tiles.getColumns(); tx++) {
+                if (!tiles.isDirty(tx, ty)) continue;
+                int x0 = xStart[tx * TileTracker.TILE];
+                int x1 = xStart[Math.min((tx + 1) * TileTracker.TILE, srcW)];
+                if (atSource) {
+                    FilterKernel.filterAtSourceRect(src, srcW, dst, outW, filter, bgPre, solidPre,
+                            buffers.sourceMask(), buffers.row(), scale, x0, x1, y0, y1);
+                } else {
+                    FilterKernel.filterRect(src, srcW, dst, outW, filter, bgPre, solidPre,
+                            scale, x0, x1, y0, y1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the background image scaled to the given size as premultiplied ARGB pixels,
+     * ready to be copied into the layered window's DIB as-is.
+     */
+    private int[] getScaledBgPixels(BufferedImage image, int w, int h) {
+        int[] cached = scaledBgPixels;
+        if (cached != null && scaledFor == image && lastBgScaleW == w && lastBgScaleH == h) {
+            return cached;
+        }
+        BufferedImage scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = scaled.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(image, 0, 0, w, h, null);
+        g2.dispose();
+        int[] pixels = ((DataBufferInt) scaled.getRaster().getDataBuffer()).getData();
+        scaledBgPixels = pixels;
+        scaledFor = image;
+        lastBgScaleW = w;
+        lastBgScaleH = h;
+        return pixels;
+    }
+
+    /** Heap held by the pipeline's buffers and scaled background. */
+    public long getMemoryBytes() {
+        int[] bg = scaledBgPixels;
+        return buffers.getMemoryBytes() + (bg != null ? (long) bg.length * 4 : 0);
+    }
+
+    /**
+     * Drops buffers, tables and the scaled background so they can be collected.
+     */
+    public void release() {
+        buffers.release();
+        Upscaler upscaler = this.upscaler;
+        if (upscaler != null) upscaler.release();
+        scaledBgPixels = null;
+        scaledFor = null;
+        lastBgScaleW = -1;
+        lastBgScaleH = -1;
+        lastDst = null;
+        tiles.invalidate();
+    }
+}
@@ -0,0 +1,79 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+/**
+ * Per-frame arena of the pixel buffers used by the filtered capture path.
+ * Buffers are kept between ticks and only reallocated when the requested size
+ * changes (i.e. after positionCapture), so a steady-state tick allocates nothing.
+ * <p>
+ * Not thread-safe: only touch it from the thread that runs the capture ticks.
+ */
+public class FrameBuffers {
+    private int srcW = -1;
+    private int srcH = -1;
+    private int[] sourceMask;
+
+    private int outW = -1;
+    private int outH = -1;
+    private int[] row;
+    private int[][] bandRows = new int[0][];
+
+    /**
+     * Makes sure the source buffers match the given capture size, reallocating only on change.
+     * The raw capture itself is owned by the capture source.
+     */
+    public void ensureSource(int w, int h) {
+        if (w == srcW && h == srcH) return;
+        sourceMask = new int[w * h];
+        srcW = w;
+        srcH = h;
+    }
+
+    /**
+     * Makes sure the output buffers match the given window size, reallocating only on change.
+     */
+    public void ensureOutput(int w, int h) {
+        if (w == outW && h == outH) return;
+        row = new int[w];
+        bandRows = new int[0][];
+        outW = w;
+        outH = h;
+    }
+
+    /** Source-resolution filter result: opaque text pixels, 0 elsewhere. */
+    public int[] sourceMask() {
+        return sourceMask;
+    }
+
+    /** Scratch for one expanded output row. */
+    public int[] row() {
+        return row;
+    }
+
+    /**
+     * One output row of scratch per parallel filter band, reallocated only when the
+     * band count or output width changes.
+     */
+    public int[][] bandRows(int bands) {
+        if (bandRows.length != bands) {
+            bandRows = new int[bands][outW];
+        }
+        return bandRows;
+    }
+
+    /** Heap held by the buffers, for the Performance tab. */
+    public long getMemoryBytes() {
+        long ints = (sourceMask != null ? sourceMask.length : 0) + (row != null ? row.length : 0);
+        for (int[] bandRow : bandRows) ints += bandRow.length;
+        return ints * 4;
+    }
+
+    /**
+     * Drops all buffers so they can be collected, e.g. when the owning frame is disposed.
+     */
+    public void release() {
+        sourceMask = null;
+        row = null;
+        bandRows = new int[0][];
+        srcW = srcH = outW = outH = -1;
+    }
+}
@@ -0,0 +1,39 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import java.nio.IntBuffer;
+
+/**
+ * Where the {@link FilterPipeline} draws a finished frame: a layered window on Windows,
+ * or plain memory for headless runs and benchmarks.
+ * <p>
+ * The pixel memory is kept between ticks, so a frame that is only partly redrawn still
+ * shows the rest of the previous one. Not thread-safe: only touch one from the thread
+ * that runs the capture ticks.
+ */
+public interface FramePresenter {
+    /** Output width in physical pixels; 0 or less when there is nowhere to present. */
+    int getWidth();
+
+    /** Output height in physical pixels; 0 or less when there is nowhere to present. */
+    int getHeight();
+
+    /**
+     * @return {@code getWidth() * getHeight()} premultiplied ARGB ints to draw into, or null
+     * if they couldn't be allocated. A different buffer than last time means its contents
+     * are undefined.
+     */
+    IntBuffer getPixels();
+
+    /**
+     * Shows what was drawn into {@link #getPixels()}.
+     */
+    void present();
+
+    /** Size of the pixel memory currently held. */
+    long getMemoryBytes();
+
+    /**
+     * Frees the pixel memory. Safe to call repeatedly.
+     */
+    void release();
+}
@@ -0,0 +1,64 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import java.nio.IntBuffer;
+
+/**
+ * A {@link FramePresenter} backed by a heap buffer, for running the pipeline without a
+ * window (tests, benchmarks, CI). Only counts presents.
+ */
+public class MemoryPresenter implements FramePresenter {
+    private int width;
+    private int height;
+    private IntBuffer pixels;
+    private long presents = 0;
+
+    public MemoryPresenter(int width, int height) {
+        setSize(width, height);
+    }
+
+    /**
+     * Changes the output size; the next frame is drawn into a fresh buffer.
+     */
+    public void setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = null;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public IntBuffer getPixels() {
+        if (pixels == null && width > 0 && height > 0) {
+            pixels = IntBuffer.allocate(width * height);
+        }
+        return pixels;
+    }
+
+    @Override
+    public void present() {
+        presents++;
+    }
+
+    public long getPresentCount() {
+        return presents;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return pixels != null ? (long) pixels.capacity() * 4 : 0;
+    }
+
+    @Override
+    public void release() {
+        pixels = null;
+    }
+}
@@ -0,0 +1,100 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs {@link FilterKernel} over horizontal row bands on a small shared fork/join pool.
+ * Meant for wide captures (e.g. 1920px Planar Abuse) where a single executor thread
+ * can't keep up; small outputs stay on the calling thread.
+ */
+public final class ParallelFilter {
+    /** Outputs below this many pixels are filtered on the calling thread. */
+    public static final int MIN_PARALLEL_PIXELS = 128 * 1024;
+    private static final int MIN_BAND_PIXELS = 32 * 1024;
+
+    private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+
+    private ParallelFilter() {
+    }
+
+    /**
+     * @return how many row bands an output of this size should be split into, 1 meaning "don't split"
+     */
+    public static int bandCount(int outW, int outH) {
+        long pixels = (long) outW * outH;
+        if (PARALLELISM < 2 || pixels < MIN_PARALLEL_PIXELS) return 1;
+        int bands = (int) Math.min(PARALLELISM * 2L, pixels / MIN_BAND_PIXELS);
+        return Math.max(1, Math.min(bands, outH));
+    }
+
+    /**
+     * Parallel {@link FilterKernel#filterToBgra}.
+     */
+    public static void filterToBgra(int[] src, int srcW,
+                                    IntBuffer dst, int outW, int outH,
+                                    CompiledFilter filter, int[] bgPre, int solidPre,
+                                    ScaleTables scale, int bands) {
+        POOL.invoke(new BandTask((y0, y1, band) -> FilterKernel.filterRect(
+                src, srcW, dst, outW, filter, bgPre, solidPre, scale, 0, outW, y0, y1
+        ), outH, 0, bands, bands));
+    }
+
+    /**
+     * Parallel {@link FilterKernel#filterAtSourceToBgra}. {@code rows} needs one scratch row
+     * of {@code outW} entries per band.
+     */
+    public static void filterAtSourceToBgra(int[] src, int srcW,
+                                            IntBuffer dst, int outW, int outH,
+                                            CompiledFilter filter, int[] bgPre, int solidPre,
+                                            int[] fg, int[][] rows, ScaleTables scale, int bands) {
+        POOL.invoke(new BandTask((y0, y1, band) -> FilterKernel.filterAtSourceRect(
+                src, srcW, dst.duplicate(), outW,
+                filter, bgPre, solidPre, fg, rows[band], scale, 0, outW, y0, y1
+        ), outH, 0, bands, bands));
+    }
+
+    /**
+     * Stops the pool's worker threads; called when the plugin stops.
+     */
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private interface BandBody {
+        void run(int y0, int y1, int band);
+    }
+
+    /**
+     * Splits bands {@code [b0, b1)} in half until a single band is left, then runs it.
+     */
+    private static final class BandTask extends RecursiveAction {
+        private final BandBody body;
+        private final int outH;
+        private final int b0;
+        private final int b1;
+        private final int bands;
+
+        BandTask(BandBody body, int outH, int b0, int b1, int bands) {
+            this.body = body;
+            this.outH = outH;
+            this.b0 = b0;
+            this.b1 = b1;
+            this.bands = bands;
+        }
+
+        @Override
+        protected void compute() {
+            if (b1 - b0 == 1) {
+                body.run(b0 * outH / bands, b1 * outH / bands, b0);
+                return;
+            }
+            int mid = (b0 + b1) >>> 1;
+            invokeAll(new BandTask(body, outH, b0, mid, bands), new BandTask(body, outH, mid, b1, bands));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+/**
+ * Pixel-art upscaler: a table-driven Scale2x (EPX) pass over the text mask rounds off the
+ * staircase edges of upscaled glyphs, then the doubled image is expanded to the output size
+ * with nearest-neighbour. Text pixels stay fully opaque, so edges remain crisp.
+ * <p>
+ * Neighbours are compared by class (text or not) rather than by exact colour, which keeps
+ * anti-aliased glyph colours from breaking up the pattern.
+ */
+final class Scale2xUpscaler implements Upscaler {
+    /**
+     * Indexed by the text bits of the up, left, right and down neighbours (bits 0-3); bits
+     * 0-3 of the entry say which quadrant of the 2x block (top-left, top-right, bottom-left,
+     * bottom-right) takes the left/right neighbour instead of the centre pixel.
+     */
+    private static final byte[] RULES = buildRules();
+
+    private final ScaleTables scale = new ScaleTables();
+    private int[] doubled = new int[0];
+    private int[] row = new int[0];
+
+    @Override
+    public void upscale(int[] fg, int srcW, int srcH,
+                        IntBuffer dst, int outW, int outH,
+                        int[] bgPre, int solidPre) {
+        int dw = srcW * 2;
+        int dh = srcH * 2;
+        if (doubled.length != dw * dh) doubled = new int[dw * dh];
+        if (row.length != outW) row = new int[outW];
+        scale.ensure(dw, dh, outW, outH);
+
+        for (int sy = 0; sy < srcH; sy++) {
+            int i = sy * srcW;
+            int o = sy * 2 * dw;
+            for (int sx = 0; sx < srcW; sx++, i++, o += 2) {
+                int e = fg[i];
+                int b = sy > 0 ? fg[i - srcW] : e;
+                int d = sx > 0 ? fg[i - 1] : e;
+                int f = sx < srcW - 1 ? fg[i + 1] : e;
+                int h = sy < srcH - 1 ? fg[i + srcW] : e;
+
+                int rule = RULES[(b != 0 ? 1 : 0) | (d != 0 ? 2 : 0) | (f != 0 ? 4 : 0) | (h != 0 ? 8 : 0)];
+                doubled[o] = (rule & 1) != 0 ? d : e;
+                doubled[o + 1] = (rule & 2) != 0 ? f : e;
+                doubled[o + dw] = (rule & 4) != 0 ? d : e;
+                doubled[o + dw + 1] = (rule & 8) != 0 ? f : e;
+            }
+        }
+
+        int[] xIndex = scale.xIndex();
+        int[] yIndex = scale.yIndex();
+        int rowSy = -1;
+        for (int y = 0; y < outH; y++) {
+            int sy = yIndex[y];
+            if (sy != rowSy) {
+                int rowOff = sy * dw;
+                for (int x = 0; x < outW; x++) {
+                    int v = doubled[rowOff + xIndex[x]];
+                    row[x] = v != 0 || bgPre != null ? v : solidPre;
+                }
+                rowSy = sy;
+            }
+
+            int o = y * outW;
+            if (bgPre == null) {
+                ((Buffer) dst).position(o);
+                dst.put(row, 0, outW);
+            } else {
+                for (int x = 0; x < outW; x++, o++) {
+                    int v = row[x];
+                    dst.put(o, v != 0 ? v : bgPre[o]);
+                }
+            }
+        }
+        ((Buffer) dst).clear(); // Buffer cast keeps the Java 8 method signature
+    }
+
+    /**
+     * Scale2x: when the up/down and left/right neighbours differ, a corner takes the
+     * neighbour shared by its two adjacent edges.
+     */
+    private static byte[] buildRules() {
+        byte[] rules = new byte[16];
+        for (int p = 0; p < 16; p++) {
+            boolean b = (p & 1) != 0;
+            boolean d = (p & 2) != 0;
+            boolean f = (p & 4) != 0;
+            boolean h = (p & 8) != 0;
+            int rule = 0;
+            if (b != h && d != f) {
+                if (d == b) rule |= 1;
+                if (b == f) rule |= 2;
+                if (d == h) rule |= 4;
+                if (h == f) rule |= 8;
+            }
+            rules[p] = (byte) rule;
+        }
+        return rules;
+    }
+
+    @Override
+    public void release() {
+        doubled = new int[0];
+        row = new int[0];
+    }
+}
@@ -0,0 +1,92 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+/**
+ * Precomputed nearest-neighbour mapping between a source and an output size, kept
+ * between ticks and only rebuilt when either size changes. The scale ratio of a
+ * capture is usually fixed for hours, so the kernels never divide per pixel or row.
+ * <p>
+ * Uses the same pixel-centre rule as Java2D's nearest-neighbour scaling:
+ * output {@code i} samples source {@code floor((2i + 1) * srcLen / (2 * outLen))}.
+ * Not thread-safe to rebuild; once built the tables are read-only and can be shared
+ * by concurrent filter bands.
+ */
+public class ScaleTables {
+    private int srcW = -1;
+    private int srcH = -1;
+    private int outW = -1;
+    private int outH = -1;
+
+    private int[] xIndex;
+    private int[] yIndex;
+    private int[] xStart;
+    private int[] yStart;
+
+    /**
+     * Rebuilds the tables if the source or output size changed.
+     */
+    public void ensure(int srcW, int srcH, int outW, int outH) {
+        if (srcW == this.srcW && srcH == this.srcH && outW == this.outW && outH == this.outH) return;
+        xIndex = buildIndex(srcW, outW);
+        yIndex = buildIndex(srcH, outH);
+        xStart = buildStart(srcW, outW);
+        yStart = buildStart(srcH, outH);
+        this.srcW = srcW;
+        this.srcH = srcH;
+        this.outW = outW;
+        this.outH = outH;
+    }
+
+    /** Source column for each of the {@code outW} output columns. */
+    public int[] xIndex() {
+        return xIndex;
+    }
+
+    /** Source row for each of the {@code outH} output rows. */
+    public int[] yIndex() {
+        return yIndex;
+    }
+
+    /**
+     * First output column sampling source column {@code s} or later, for {@code s} in
+     * {@code [0, srcW]}; maps source rectangles (e.g. dirty tiles) to output rectangles.
+     */
+    public int[] xStart() {
+        return xStart;
+    }
+
+    /** Row counterpart of {@link #xStart()}. */
+    public int[] yStart() {
+        return yStart;
+    }
+
+    /**
+     * Fills a table with the nearest-neighbour source index for each output position,
+     * stepping an accumulator instead of dividing.
+     */
+    private static int[] buildIndex(int srcLen, int outLen) {
+        int[] index = new int[outLen];
+        int den = 2 * outLen;
+        int step = 2 * srcLen;
+        int acc = srcLen;
+        int s = 0;
+        for (int i = 0; i < outLen; i++) {
+            while (acc >= den) {
+                acc -= den;
+                s++;
+            }
+            index[i] = s;
+            acc += step;
+        }
+        return index;
+    }
+
+    private static int[] buildStart(int srcLen, int outLen) {
+        int[] start = new int[srcLen + 1];
+        for (int s = 0; s <= srcLen; s++) {
+            long num = 2L * s * outLen - srcLen;
+            long den = 2L * srcLen;
+            start[s] = num <= 0 ? 0 : (int) Math.min(outLen, (num + den - 1) / den);
+        }
+        return start;
+    }
+}
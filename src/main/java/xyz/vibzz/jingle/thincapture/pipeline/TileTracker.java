@@ -0,0 +1,91 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+/**
+ * Detects which parts of a source frame changed since the previous tick by keeping a
+ * hash per {@value #TILE}x{@value #TILE} tile. Lets the filtered path re-filter only
+ * changed tiles and skip presenting entirely when nothing changed.
+ * <p>
+ * Not thread-safe: only touch it from the thread that runs the capture ticks.
+ */
+public class TileTracker {
+    public static final int TILE = 32;
+
+    private int srcW = -1;
+    private int srcH = -1;
+    private int columns;
+    private int rows;
+    private long[] hashes = new long[0];
+    private boolean[] dirty = new boolean[0];
+    private volatile boolean invalid = true;
+
+    /**
+     * Marks every tile dirty on the next {@link #update}, e.g. after the output, filter
+     * settings or window position changed and the previous present can't be reused.
+     * Safe to call from any thread.
+     */
+    public void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Hashes every tile of {@code src} and compares it with the previous frame.
+     *
+     * @return the number of dirty tiles
+     */
+    public int update(int[] src, int srcW, int srcH) {
+        boolean all = invalid;
+        invalid = false;
+        if (srcW != this.srcW || srcH != this.srcH) {
+            this.srcW = srcW;
+            this.srcH = srcH;
+            columns = (srcW + TILE - 1) / TILE;
+            rows = (srcH + TILE - 1) / TILE;
+            hashes = new long[columns * rows];
+            dirty = new boolean[columns * rows];
+            all = true;
+        }
+
+        int dirtyCount = 0;
+        for (int ty = 0; ty < rows; ty++) {
+            int y0 = ty * TILE;
+            int y1 = Math.min(y0 + TILE, srcH);
+            for (int tx = 0; tx < columns; tx++) {
+                int x0 = tx * TILE;
+                int x1 = Math.min(x0 + TILE, srcW);
+
+                long h = 0xCBF29CE484222325L;
+                for (int y = y0; y < y1; y++) {
+                    int i = y * srcW + x0;
+                    int end = y * srcW + x1;
+                    for (; i < end; i++) {
+                        // The alpha byte of a GDI capture is undefined, so leave it out of the hash
+                        h = (h ^ (src[i] & 0xFFFFFF)) * 0x100000001B3L;
+                    }
+                }
+
+                int t = ty * columns + tx;
+                boolean changed = all || hashes[t] != h;
+                hashes[t] = h;
+                dirty[t] = changed;
+                if (changed) dirtyCount++;
+            }
+        }
+        return dirtyCount;
+    }
+
+    public boolean isDirty(int column, int row) {
+        return dirty[row * columns + column];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getTileCount() {
+        return columns * rows;
+    }
+}
@@ -0,0 +1,30 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import java.nio.IntBuffer;
+
+/**
+ * Smoothing upscaler for the filtered capture path, used instead of the nearest-neighbour
+ * {@link FilterKernel} when a capture asks for it. Works on the classified foreground
+ * layer (see {@link FilterKernel#classify}) and composites the scaled result over the
+ * background straight into the present DIB.
+ * <p>
+ * Implementations keep their lookup tables and scratch between ticks and only rebuild
+ * them on size change. Not thread-safe: only touch one from the thread that runs the
+ * capture ticks.
+ */
+public interface Upscaler {
+    /**
+     * @param fg       premultiplied foreground of {@code srcW * srcH} pixels, 0 where there's no text
+     * @param dst      destination of {@code outW * outH} premultiplied ARGB pixels
+     * @param bgPre    premultiplied background image of the output size, or null for {@code solidPre}
+     * @param solidPre premultiplied solid background colour (0 for fully transparent)
+     */
+    void upscale(int[] fg, int srcW, int srcH,
+                 IntBuffer dst, int outW, int outH,
+                 int[] bgPre, int solidPre);
+
+    /**
+     * Drops the tables and scratch so they can be collected.
+     */
+    void release();
+}
@@ -0,0 +1,48 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+
+/**
+ * Factory for the per-capture {@link Upscaler}, plus the packed-pixel helpers they share.
+ */
+public final class Upscalers {
+    private Upscalers() {
+    }
+
+    /**
+     * @return a new upscaler for the given {@link CaptureConfig#scaler} name, or null for
+     * nearest-neighbour (handled by the fused {@link FilterKernel})
+     */
+    public static Upscaler create(String scaler) {
+        if (CaptureConfig.SCALER_BILINEAR.equals(scaler)) return new BilinearUpscaler();
+        if (CaptureConfig.SCALER_SCALE2X.equals(scaler)) return new Scale2xUpscaler();
+        return null;
+    }
+
+    /**
+     * Premultiplied "source over" of {@code fg} onto {@code bg}. Two channels are scaled per
+     * multiply ({@code 0x00FF00FF} lanes); using {@code 255 - a} as the weight keeps every
+     * channel within a byte.
+     */
+    static int over(int fg, int bg) {
+        int a = fg >>> 24;
+        if (a == 0xFF) return fg;
+        if (a == 0) return bg;
+        int inv = 255 - a;
+        int rb = ((bg & 0x00FF00FF) * inv >>> 8) & 0x00FF00FF;
+        int ag = ((bg >>> 8) & 0x00FF00FF) * inv & 0xFF00FF00;
+        return fg + (ag | rb);
+    }
+
+    /**
+     * Linear interpolation between two premultiplied pixels with an 8-bit fixed-point weight
+     * {@code f} in {@code [0, 256]} for {@code b}.
+     */
+    static int lerp(int a, int b, int f) {
+        if (a == b) return a;
+        int inv = 256 - f;
+        int rb = (((a & 0x00FF00FF) * inv + (b & 0x00FF00FF) * f) >>> 8) & 0x00FF00FF;
+        int ag = (((a >>> 8) & 0x00FF00FF) * inv + ((b >>> 8) & 0x00FF00FF) * f) & 0xFF00FF00;
+        return ag | rb;
+    }
+}
@@ -4,6 +4,7 @@ import xyz.vibzz.jingle.thincapture.ThinCapture;
 import xyz.vibzz.jingle.thincapture.ThinCaptureOptions;
 import xyz.vibzz.jingle.thincapture.config.BackgroundConfig;
 import xyz.vibzz.jingle.thincapture.frame.BackgroundFrame;
+import xyz.vibzz.jingle.thincapture.util.ImageCache;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
@@ -37,6 +38,21 @@ public class BackgroundsPluginPanel {
         preloadDesc.setFont(preloadDesc.getFont().deriveFont(Font.ITALIC, 11f));
         preloadRow.add(preloadDesc);
         mainPanel.add(preloadRow);
+
+        JPanel cacheRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        cacheRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
+        cacheRow.setAlignmentX(Component.LEFT_ALIGNMENT);
+        JTextField cacheField = new JTextField(String.valueOf(o.imageCacheMb), 4);
+        cacheField.getDocument().addDocumentListener(docListener(() -> {
+            o.imageCacheMb = Math.max(0, intFrom(cacheField, 256));
+            ImageCache.setMaxMegabytes(o.imageCacheMb);
+        }));
+        cacheRow.add(new JLabel("图片缓存上限 (MB)："));
+        cacheRow.add(cacheField);
+        JLabel cacheDesc = new JLabel("相同的背景图片只解码一次，在各个背景和采集之间共享 (0 为不缓存)");
+        cacheDesc.setFont(cacheDesc.getFont().deriveFont(Font.ITALIC, 11f));
+        cacheRow.add(cacheDesc);
+        mainPanel.add(cacheRow);
         mainPanel.add(Box.createRigidArea(new Dimension(0, 8)));
 
         // Thin BT
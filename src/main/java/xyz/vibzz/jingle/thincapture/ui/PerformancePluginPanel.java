@@ -0,0 +1,200 @@
+package xyz.vibzz.jingle.thincapture.ui;
+
+import xyz.vibzz.jingle.thincapture.ThinCapture;
+import xyz.vibzz.jingle.thincapture.ThinCaptureOptions;
+import xyz.vibzz.jingle.thincapture.config.BackgroundConfig;
+import xyz.vibzz.jingle.thincapture.frame.BackgroundFrame;
+import xyz.vibzz.jingle.thincapture.frame.CaptureFrame;
+import xyz.vibzz.jingle.thincapture.util.FramePacer;
+import xyz.vibzz.jingle.thincapture.util.FrameStats;
+import xyz.vibzz.jingle.thincapture.util.ImageCache;
+import xyz.vibzz.jingle.thincapture.util.TraceWriter;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live per-window costs: achieved fps against the limit, stage time percentiles, ticks
+ * dropped by the pacer and pixel memory. Refreshed once a second while the tab is visible.
+ */
+public class PerformancePluginPanel {
+    private static final int REFRESH_MS = 1000;
+    private static final String[] COLUMNS = {"窗口", "类型", "FPS / 上限", "捕获 (ms)", "滤镜 (ms)", "呈现 (ms)", "丢帧", "内存"};
+
+    public final JPanel mainPanel;
+    private final StatsTableModel model = new StatsTableModel();
+    private final JLabel totalLabel = new JLabel();
+    // Tick count and time of the previous refresh per window, for the fps column
+    private Map<FrameStats, long[]> lastTicks = new IdentityHashMap<>();
+
+    public PerformancePluginPanel() {
+        mainPanel = new JPanel();
+        mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        JLabel desc = new JLabel("每秒刷新；耗时显示为 p50 / p95。丢帧为该模式因超时跳过的 tick 数。");
+        desc.setFont(desc.getFont().deriveFont(Font.ITALIC, 11f));
+        desc.setAlignmentX(Component.LEFT_ALIGNMENT);
+        mainPanel.add(desc);
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 4)));
+
+        ThinCaptureOptions o = ThinCapture.getOptions();
+        JPanel traceRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        traceRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
+        traceRow.setAlignmentX(Component.LEFT_ALIGNMENT);
+        JCheckBox traceBox = new JCheckBox("记录耗时跟踪");
+        traceBox.setSelected(o.timingTrace);
+        traceBox.addActionListener(a -> {
+            o.timingTrace = traceBox.isSelected();
+            if (o.timingTrace) TraceWriter.start();
+            else TraceWriter.stop();
+        });
+        traceRow.add(traceBox);
+        JLabel traceDesc = new JLabel("每个 tick 的耗时和模式切换写入 Jingle 文件夹下的 thincapture-traces (CSV)");
+        traceDesc.setFont(traceDesc.getFont().deriveFont(Font.ITALIC, 11f));
+        traceRow.add(traceDesc);
+        mainPanel.add(traceRow);
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 4)));
+
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setAlignmentX(Component.LEFT_ALIGNMENT);
+        mainPanel.add(scroll);
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 4)));
+
+        totalLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        mainPanel.add(totalLabel);
+
+        Timer timer = new Timer(REFRESH_MS, a -> {
+            if (mainPanel.isShowing()) refresh();
+        });
+        timer.start();
+    }
+
+    public void onSwitchTo() {
+        refresh();
+    }
+
+    private void refresh() {
+        ThinCaptureOptions o = ThinCapture.getOptions();
+        List<Row> rows = new ArrayList<>();
+        FramePacer thinPacer = ThinCapture.getThinBTGroup().getPacer();
+        FramePacer planarPacer = ThinCapture.getPlanarGroup().getPacer();
+        for (CaptureFrame f : ThinCapture.getFrames()) {
+            rows.add(new Row(f.getCaptureName(), "宝藏宏", f.getStats(), f.getMemoryBytes(), o.fpsLimit, thinPacer));
+        }
+        for (CaptureFrame f : ThinCapture.getPlanarFrames()) {
+            rows.add(new Row(f.getCaptureName(), "除雾宏", f.getStats(), f.getMemoryBytes(), o.planarAbuseFpsLimit, planarPacer));
+        }
+        addBackgrounds(rows, ThinCapture.getBgFrames(), o.backgrounds, "宝藏宏背景");
+        addBackgrounds(rows, ThinCapture.getPlanarBgFrames(), o.planarAbuseBackgrounds, "除雾宏背景");
+        addBackgrounds(rows, ThinCapture.getEyeSeeBgFrames(), o.eyeSeeBackgrounds, "EyeSee背景");
+
+        long now = System.nanoTime();
+        long cacheMemory = ImageCache.getMemoryBytes();
+        long totalMemory = cacheMemory;
+        Map<FrameStats, long[]> ticks = new IdentityHashMap<>();
+        for (Row row : rows) {
+            long count = row.stats.getTicks();
+            long[] last = lastTicks.get(row.stats);
+            if (last != null && now > last[1]) {
+                row.fps = (count - last[0]) * 1_000_000_000.0 / (now - last[1]);
+            }
+            ticks.put(row.stats, new long[]{count, now});
+            totalMemory += row.memory;
+            row.format();
+        }
+        lastTicks = ticks;
+
+        model.setRows(rows);
+        totalLabel.setText("总内存：" + formatBytes(totalMemory) + "（其中图片缓存：" + formatBytes(cacheMemory) + "）");
+    }
+
+    private static void addBackgrounds(List<Row> rows, List<BackgroundFrame> frames, List<BackgroundConfig> configs, String type) {
+        for (int i = 0; i < frames.size(); i++) {
+            BackgroundFrame bf = frames.get(i);
+            String name = i < configs.size() ? configs.get(i).name : type + " " + (i + 1);
+            rows.add(new Row(name, type, bf.getStats(), bf.getMemoryBytes(), -1, null));
+        }
+    }
+
+    private static String formatStage(FrameStats stats, int stage) {
+        long[] p = stats.percentiles(stage, 0.5, 0.95);
+        if (p == null) return "-";
+        return String.format("%.2f / %.2f", p[0] / 1_000_000.0, p[1] / 1_000_000.0);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static class Row {
+        final String name;
+        final String type;
+        final FrameStats stats;
+        final long memory;
+        final int fpsLimit;
+        final FramePacer pacer;
+        double fps = Double.NaN;
+        final String[] cells = new String[COLUMNS.length];
+
+        Row(String name, String type, FrameStats stats, long memory, int fpsLimit, FramePacer pacer) {
+            this.name = name;
+            this.type = type;
+            this.stats = stats;
+            this.memory = memory;
+            this.fpsLimit = fpsLimit;
+            this.pacer = pacer;
+        }
+
+        /** Formats every column once per refresh rather than on every repaint. */
+        void format() {
+            String fpsText = Double.isNaN(fps) ? "-" : String.format("%.1f", fps);
+            cells[0] = name;
+            cells[1] = type;
+            cells[2] = fpsLimit > 0 ? fpsText + " / " + fpsLimit : fpsText;
+            cells[3] = formatStage(stats, FrameStats.CAPTURE);
+            cells[4] = formatStage(stats, FrameStats.FILTER);
+            cells[5] = formatStage(stats, FrameStats.PRESENT);
+            cells[6] = pacer != null ? String.valueOf(pacer.getOverruns()) : "-";
+            cells[7] = formatBytes(memory);
+        }
+    }
+
+    private static class StatsTableModel extends AbstractTableModel {
+        private List<Row> rows = new ArrayList<>();
+
+        void setRows(List<Row> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return rows.get(rowIndex).cells[columnIndex];
+        }
+    }
+}
@@ -40,6 +40,7 @@ public class PlanarAbusePluginPanel {
         p.setAlignmentX(Component.LEFT_ALIGNMENT);
         p.add(buildSizeRow());
         p.add(buildFpsRow(o));
+        p.add(buildParallelRow(o));
         return p;
     }
 
@@ -65,6 +66,15 @@ public class PlanarAbusePluginPanel {
         return createRow(new JLabel("帧率限制："), f);
     }
 
+    private JPanel buildParallelRow(ThinCaptureOptions o) {
+        JCheckBox box = new JCheckBox("多线程过滤");
+        box.setSelected(o.parallelFiltering);
+        box.addActionListener(a -> o.parallelFiltering = box.isSelected());
+        JLabel desc = new JLabel("宽采集的文本过滤分行并行处理，小采集不受影响。 [影响全局]");
+        desc.setFont(desc.getFont().deriveFont(Font.ITALIC, 11f));
+        return createRow(box, desc);
+    }
+
     private JPanel buildAddButtonRow() {
         JPanel r = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 4));
         r.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -86,6 +96,7 @@ public class PlanarAbusePluginPanel {
         s.add(buildCaptureTopRow(index, c));
         s.add(buildMonitorRow(index, c));
         s.add(buildMCRegionRow(index, c));
+        s.add(buildScalerRow(index, c));
         s.add(buildTransparencySection(index, c));
         return s;
     }
@@ -176,6 +187,19 @@ public class PlanarAbusePluginPanel {
         return row;
     }
 
+    private JPanel buildScalerRow(int index, CaptureConfig c) {
+        String[] ids = {CaptureConfig.SCALER_NEAREST, CaptureConfig.SCALER_BILINEAR, CaptureConfig.SCALER_SCALE2X};
+        JComboBox<String> box = new JComboBox<>(new String[]{"最近邻 (锐利)", "双线性 (平滑)", "Scale2x (像素风)"});
+        box.setSelectedIndex(Math.max(0, java.util.Arrays.asList(ids).indexOf(c.scaler)));
+        box.addActionListener(a -> {
+            c.scaler = ids[box.getSelectedIndex()];
+            ThinCapture.updatePlanarCaptureFilter(index);
+        });
+        JLabel desc = new JLabel("(放大投影时使用)");
+        desc.setFont(desc.getFont().deriveFont(Font.ITALIC, 11f));
+        return createRow(new JLabel("缩放算法："), box, desc);
+    }
+
     private JPanel buildTransparencySection(int index, CaptureConfig c) {
         JPanel sec = new JPanel();
         sec.setLayout(new BoxLayout(sec, BoxLayout.Y_AXIS));
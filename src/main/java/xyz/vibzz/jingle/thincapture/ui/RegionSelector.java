@@ -1,9 +1,10 @@
 package xyz.vibzz.jingle.thincapture.ui;
 
+import xyz.vibzz.jingle.thincapture.util.DisplayTransforms;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.AffineTransform;
 import java.util.function.Consumer;
 
 /**
@@ -368,64 +369,13 @@ public class RegionSelector extends JFrame {
 
     // ===== Static helpers =====
 
-    /**
-     * Returns the bounding rectangle that spans all monitors (the virtual screen).
-     * Coordinates may be negative if monitors are arranged to the left of or above the primary.
-     */
-    private static Rectangle getVirtualScreenBounds() {
-        Rectangle virtualBounds = new Rectangle();
-        GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-        for (GraphicsDevice gd : ge.getScreenDevices()) {
-            for (GraphicsConfiguration gc : gd.getConfigurations()) {
-                virtualBounds = virtualBounds.union(gc.getBounds());
-            }
-        }
-        return virtualBounds;
-    }
-
-    /**
-     * Finds the display scale factors for the monitor that contains the given
-     * physical screen point. Falls back to the default screen if no match is found.
-     */
-    private static double[] getScaleForPhysicalPoint(int physX, int physY) {
-        GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-        for (GraphicsDevice gd : ge.getScreenDevices()) {
-            GraphicsConfiguration gc = gd.getDefaultConfiguration();
-            Rectangle screenBounds = gc.getBounds();
-            AffineTransform tx = gc.getDefaultTransform();
-            Rectangle physBounds = new Rectangle(
-                    (int) (screenBounds.x * tx.getScaleX()),
-                    (int) (screenBounds.y * tx.getScaleY()),
-                    (int) (screenBounds.width * tx.getScaleX()),
-                    (int) (screenBounds.height * tx.getScaleY())
-            );
-            if (physBounds.contains(physX, physY)) {
-                return new double[]{ tx.getScaleX(), tx.getScaleY() };
-            }
-        }
-        AffineTransform tx = ge.getDefaultScreenDevice().getDefaultConfiguration().getDefaultTransform();
-        return new double[]{ tx.getScaleX(), tx.getScaleY() };
-    }
-
-    private static double getDisplayScaleX() {
-        return GraphicsEnvironment.getLocalGraphicsEnvironment()
-                .getDefaultScreenDevice().getDefaultConfiguration()
-                .getDefaultTransform().getScaleX();
-    }
-
-    private static double getDisplayScaleY() {
-        return GraphicsEnvironment.getLocalGraphicsEnvironment()
-                .getDefaultScreenDevice().getDefaultConfiguration()
-                .getDefaultTransform().getScaleY();
-    }
-
     public static void selectOnScreen(Consumer<Rectangle> onSelected) {
-        Rectangle virtualBounds = getVirtualScreenBounds();
+        Rectangle virtualBounds = DisplayTransforms.getVirtualBounds();
         new RegionSelector("选择投影位置", virtualBounds, onSelected);
     }
 
     public static void editOnScreen(Rectangle current, Consumer<Rectangle> onSelected) {
-        Rectangle virtualBounds = getVirtualScreenBounds();
+        Rectangle virtualBounds = DisplayTransforms.getVirtualBounds();
         new RegionSelector("编辑投影位置", virtualBounds, current, onSelected);
     }
 
@@ -547,15 +497,7 @@ public class RegionSelector extends JFrame {
 
         int windowCenterX = winRect.left + winW / 2;
         int windowCenterY = winRect.top + winH / 2;
-        double[] scale = getScaleForPhysicalPoint(windowCenterX, windowCenterY);
-        double scaleX = scale[0];
-        double scaleY = scale[1];
-
-        return new Rectangle(
-                (int) (clientScreenX / scaleX),
-                (int) (clientScreenY / scaleY),
-                (int) (physClientW / scaleX),
-                (int) (physClientH / scaleY)
-        );
+        DisplayTransforms.Monitor monitor = DisplayTransforms.forPhysicalPoint(windowCenterX, windowCenterY);
+        return monitor.toLogical(new Rectangle(clientScreenX, clientScreenY, physClientW, physClientH));
     }
 }
\ No newline at end of file
@@ -121,6 +121,7 @@ public class ThinCapturePluginPanel {
         section.add(buildCaptureTopRow(index, c));
         section.add(buildMonitorRow(index, c));
         section.add(buildMCRegionRow(index, c));
+        section.add(buildScalerRow(index, c));
         section.add(buildTransparencySection(index, c));
 
         return section;
@@ -258,6 +259,22 @@ public class ThinCapturePluginPanel {
         return row;
     }
 
+    private JPanel buildScalerRow(int index, CaptureConfig c) {
+        String[] scalerIds = {CaptureConfig.SCALER_NEAREST, CaptureConfig.SCALER_BILINEAR, CaptureConfig.SCALER_SCALE2X};
+        String[] scalerNames = {"最近邻 (锐利)", "双线性 (平滑)", "Scale2x (像素风)"};
+
+        JComboBox<String> scalerBox = new JComboBox<>(scalerNames);
+        scalerBox.setSelectedIndex(Math.max(0, java.util.Arrays.asList(scalerIds).indexOf(c.scaler)));
+        scalerBox.addActionListener(a -> {
+            c.scaler = scalerIds[scalerBox.getSelectedIndex()];
+            ThinCapture.updateCaptureFilter(index);
+        });
+
+        JLabel desc = new JLabel("(放大投影时使用)");
+        desc.setFont(desc.getFont().deriveFont(Font.ITALIC, 11f));
+        return createRow(new JLabel("缩放算法："), scalerBox, desc);
+    }
+
     private JPanel buildTransparencySection(int index, CaptureConfig c) {
         JPanel section = new JPanel();
         section.setLayout(new BoxLayout(section, BoxLayout.Y_AXIS));
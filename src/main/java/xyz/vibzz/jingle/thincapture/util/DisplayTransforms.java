@@ -0,0 +1,232 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinUser;
+import xyz.vibzz.jingle.thincapture.win32.DisplayChangeWatcher;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cached per-monitor logical (Java) to physical (Win32) coordinate transforms.
+ * <p>
+ * On Java 9+ with mixed-DPI setups every monitor has its own scale, so a rectangle has to be
+ * converted relative to the monitor it actually lives on: its physical origin plus the
+ * offset into it, scaled by that monitor's factor. Walking {@link GraphicsEnvironment} for
+ * that is slow, so the monitor layout is cached and only re-read after Windows reports a
+ * display configuration change (see {@link #watchDisplayChanges()}) or {@link #invalidate()}.
+ */
+public final class DisplayTransforms {
+    private static final DisplayChangeWatcher WATCHER = new DisplayChangeWatcher(DisplayTransforms::invalidate);
+
+    private static volatile Layout layout;
+
+    private DisplayTransforms() {
+    }
+
+    /**
+     * Converts a rectangle in Java logical screen coordinates to physical pixels, using the
+     * monitor that contains most of it.
+     */
+    public static Rectangle toPhysical(Rectangle logical) {
+        return getLayout().forLogical(logical).toPhysical(logical);
+    }
+
+    /**
+     * @return the monitor containing the given physical screen point, or the default screen
+     */
+    public static Monitor forPhysicalPoint(int physX, int physY) {
+        return getLayout().forPhysicalPoint(physX, physY);
+    }
+
+    /**
+     * Returns the bounding rectangle that spans every configuration of every monitor (the
+     * virtual screen), in logical coordinates. May have negative coordinates.
+     */
+    public static Rectangle getVirtualBounds() {
+        return new Rectangle(getLayout().virtualBounds);
+    }
+
+    /**
+     * Starts listening for display configuration changes, which drop the cached layout.
+     */
+    public static void watchDisplayChanges() {
+        WATCHER.start();
+    }
+
+    public static void stopWatching() {
+        WATCHER.stop();
+    }
+
+    /**
+     * Drops the cached layout so the next conversion re-reads the monitors.
+     */
+    public static void invalidate() {
+        layout = null;
+    }
+
+    private static Layout getLayout() {
+        Layout l = layout;
+        if (l == null) {
+            l = Layout.load();
+            layout = l;
+        }
+        return l;
+    }
+
+    public static final class Monitor {
+        public final Rectangle logicalBounds;
+        public final Rectangle physicalBounds;
+        public final double scaleX;
+        public final double scaleY;
+
+        Monitor(Rectangle logicalBounds, Rectangle physicalBounds, double scaleX, double scaleY) {
+            this.logicalBounds = logicalBounds;
+            this.physicalBounds = physicalBounds;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+
+        /**
+         * Converts a logical rectangle on this monitor to physical pixels.
+         */
+        public Rectangle toPhysical(Rectangle logical) {
+            return new Rectangle(
+                    physicalBounds.x + (int) ((logical.x - logicalBounds.x) * scaleX),
+                    physicalBounds.y + (int) ((logical.y - logicalBounds.y) * scaleY),
+                    (int) (logical.width * scaleX),
+                    (int) (logical.height * scaleY)
+            );
+        }
+
+        /**
+         * Converts a physical rectangle on this monitor to Java logical coordinates.
+         */
+        public Rectangle toLogical(Rectangle physical) {
+            return new Rectangle(
+                    logicalBounds.x + (int) ((physical.x - physicalBounds.x) / scaleX),
+                    logicalBounds.y + (int) ((physical.y - physicalBounds.y) / scaleY),
+                    (int) (physical.width / scaleX),
+                    (int) (physical.height / scaleY)
+            );
+        }
+    }
+
+    static final class Layout {
+        private final Monitor[] monitors;
+        private final Monitor primary;
+        private final Rectangle virtualBounds;
+
+        Layout(Monitor[] monitors, Monitor primary, Rectangle virtualBounds) {
+            this.monitors = monitors;
+            this.primary = primary;
+            this.virtualBounds = virtualBounds;
+        }
+
+        static Layout load() {
+            GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+            GraphicsDevice[] devices = ge.getScreenDevices();
+            List<Rectangle> physical = physicalMonitorRects();
+            GraphicsDevice defaultDevice = ge.getDefaultScreenDevice();
+
+            Monitor[] monitors = new Monitor[devices.length];
+            Monitor primary = null;
+            Rectangle virtualBounds = new Rectangle();
+            for (int i = 0; i < devices.length; i++) {
+                GraphicsConfiguration gc = devices[i].getDefaultConfiguration();
+                AffineTransform tx = gc.getDefaultTransform();
+                Rectangle logical = gc.getBounds();
+                monitors[i] = new Monitor(logical, matchPhysical(logical, tx, i, physical),
+                        tx.getScaleX(), tx.getScaleY());
+                if (devices[i] == defaultDevice) primary = monitors[i];
+                for (GraphicsConfiguration config : devices[i].getConfigurations()) {
+                    virtualBounds = virtualBounds.union(config.getBounds());
+                }
+            }
+            if (primary == null) {
+                GraphicsConfiguration gc = defaultDevice.getDefaultConfiguration();
+                AffineTransform tx = gc.getDefaultTransform();
+                primary = new Monitor(gc.getBounds(), scaled(gc.getBounds(), tx), tx.getScaleX(), tx.getScaleY());
+            }
+            return new Layout(monitors, primary, virtualBounds);
+        }
+
+        /**
+         * Finds the Win32 monitor rectangle for AWT screen {@code index}. AWT numbers its
+         * screens in EnumDisplayMonitors order, so the same index is tried first; the size
+         * check guards against the two lists disagreeing.
+         */
+        private static Rectangle matchPhysical(Rectangle logical, AffineTransform tx, int index, List<Rectangle> physical) {
+            if (index < physical.size() && sizeMatches(physical.get(index), logical, tx)) {
+                return physical.get(index);
+            }
+            for (Rectangle r : physical) {
+                if (sizeMatches(r, logical, tx)) return r;
+            }
+            return scaled(logical, tx);
+        }
+
+        private static boolean sizeMatches(Rectangle physical, Rectangle logical, AffineTransform tx) {
+            return Math.abs(physical.width - logical.width * tx.getScaleX()) <= 2
+                    && Math.abs(physical.height - logical.height * tx.getScaleY()) <= 2;
+        }
+
+        /** Fallback when Win32 can't be asked: AWT derives logical bounds by this scale. */
+        private static Rectangle scaled(Rectangle logical, AffineTransform tx) {
+            return new Rectangle(
+                    (int) (logical.x * tx.getScaleX()),
+                    (int) (logical.y * tx.getScaleY()),
+                    (int) (logical.width * tx.getScaleX()),
+                    (int) (logical.height * tx.getScaleY())
+            );
+        }
+
+        private static List<Rectangle> physicalMonitorRects() {
+            List<Rectangle> rects = new ArrayList<>();
+            try {
+                User32.INSTANCE.EnumDisplayMonitors(null, null, (hMonitor, hdc, rect, data) -> {
+                    WinUser.MONITORINFO info = new WinUser.MONITORINFO();
+                    if (User32.INSTANCE.GetMonitorInfo(hMonitor, info).booleanValue()) {
+                        WinDef.RECT r = info.rcMonitor;
+                        rects.add(new Rectangle(r.left, r.top, r.right - r.left, r.bottom - r.top));
+                    }
+                    return 1;
+                }, new WinDef.LPARAM(0));
+            } catch (Throwable t) {
+                // Not on Windows: fall back to scaled logical bounds
+                rects.clear();
+            }
+            return rects;
+        }
+
+        Monitor forLogical(Rectangle r) {
+            Monitor best = primary;
+            long bestArea = 0;
+            for (Monitor m : monitors) {
+                Rectangle overlap = m.logicalBounds.intersection(r);
+                long area = overlap.isEmpty() ? 0 : (long) overlap.width * overlap.height;
+                if (area > bestArea) {
+                    best = m;
+                    bestArea = area;
+                }
+            }
+            if (bestArea == 0) {
+                // Degenerate or off-screen rectangle: go by its origin
+                for (Monitor m : monitors) {
+                    if (m.logicalBounds.contains(r.x, r.y)) return m;
+                }
+            }
+            return best;
+        }
+
+        Monitor forPhysicalPoint(int physX, int physY) {
+            for (Monitor m : monitors) {
+                if (m.physicalBounds.contains(physX, physY)) return m;
+            }
+            return primary;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import org.apache.logging.log4j.Level;
+import xyz.duncanruns.jingle.Jingle;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a tick at a target frame rate on a scheduled executor, aiming every tick at an
+ * absolute deadline ({@code start + n * period}) so timer jitter never accumulates.
+ * <p>
+ * Unlike {@code scheduleAtFixedRate}, a tick that overruns doesn't cause the missed ticks
+ * to fire back-to-back: the deadlines that already passed are dropped and counted as
+ * overruns, and pacing resumes at the next deadline still in the future.
+ */
+public class FramePacer {
+    private final ScheduledExecutorService executor;
+    private final Runnable tick;
+    private final String name;
+    private final LongSupplier clock;
+
+    private ScheduledFuture<?> next;
+    private long periodNanos;
+    private long deadline;
+    private int generation;
+
+    private volatile long ticks;
+    private volatile long overruns;
+
+    public FramePacer(ScheduledExecutorService executor, String name, Runnable tick) {
+        this(executor, name, tick, System::nanoTime);
+    }
+
+    FramePacer(ScheduledExecutorService executor, String name, Runnable tick, LongSupplier clock) {
+        this.executor = executor;
+        this.name = name;
+        this.tick = tick;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts (or restarts) pacing at the given rate; the first tick runs one period from now.
+     */
+    public synchronized void start(int fps) {
+        stop();
+        periodNanos = 1_000_000_000L / Math.max(1, fps);
+        deadline = clock.getAsLong() + periodNanos;
+        int gen = ++generation;
+        next = executor.schedule(() -> run(gen), periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void stop() {
+        generation++;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    private void run(int gen) {
+        synchronized (this) {
+            if (gen != generation) return;
+        }
+        try {
+            tick.run();
+        } catch (RuntimeException e) {
+            Jingle.log(Level.DEBUG, "ThinCapture " + name + " tick error: " + e.getMessage());
+        }
+        ticks++;
+
+        synchronized (this) {
+            if (gen != generation || executor.isShutdown()) return;
+            long now = clock.getAsLong();
+            deadline += periodNanos;
+            if (now > deadline) {
+                // Late: skip every deadline that already passed instead of catching up in a burst
+                long missed = (now - deadline) / periodNanos + 1;
+                overruns += missed;
+                deadline += missed * periodNanos;
+            }
+            next = executor.schedule(() -> run(gen), deadline - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Ticks run since this pacer was created. */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /** Deadlines dropped because a previous tick ran past them. */
+    public long getOverruns() {
+        return overruns;
+    }
+}
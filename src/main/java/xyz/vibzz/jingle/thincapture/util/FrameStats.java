@@ -0,0 +1,73 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import java.util.Arrays;
+
+/**
+ * Rolling timing statistics of one capture or background window, shown on the
+ * Performance tab. Keeps the last {@value #SAMPLES} durations of each stage and a
+ * running tick count; readers derive fps from the count.
+ * <p>
+ * Stages: {@link #CAPTURE} reads the source (for direct captures the whole StretchBlt),
+ * {@link #FILTER} is change detection, filtering and scaling, {@link #PRESENT} hands the
+ * frame to the window. Recording is cheap enough for every tick and safe from any thread.
+ */
+public class FrameStats {
+    public static final int CAPTURE = 0;
+    public static final int FILTER = 1;
+    public static final int PRESENT = 2;
+    private static final int STAGES = 3;
+    private static final int SAMPLES = 256;
+
+    private final long[][] samples = new long[STAGES][SAMPLES];
+    private final int[] next = new int[STAGES];
+    private final int[] count = new int[STAGES];
+    private final long[] last = {-1, -1, -1};
+    private long ticks = 0;
+
+    /**
+     * Counts a new tick; stage times recorded after this belong to it.
+     */
+    public synchronized void countTick() {
+        ticks++;
+        Arrays.fill(last, -1);
+    }
+
+    public synchronized long getTicks() {
+        return ticks;
+    }
+
+    public synchronized void record(int stage, long nanos) {
+        samples[stage][next[stage]] = nanos;
+        next[stage] = (next[stage] + 1) % SAMPLES;
+        if (count[stage] < SAMPLES) count[stage]++;
+        last[stage] = nanos;
+    }
+
+    /**
+     * @return the duration recorded for {@code stage} since the last {@link #countTick()},
+     * or -1 if the stage didn't run in this tick
+     */
+    public synchronized long getLast(int stage) {
+        return last[stage];
+    }
+
+    /**
+     * @param percentiles fractions in [0, 1], e.g. 0.5 for the median
+     * @return the recent durations of {@code stage} at each percentile in nanoseconds,
+     * or null if the stage hasn't been recorded yet
+     */
+    public long[] percentiles(int stage, double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            if (count[stage] == 0) return null;
+            sorted = Arrays.copyOf(samples[stage], count[stage]);
+        }
+        Arrays.sort(sorted);
+        long[] out = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            int index = (int) Math.ceil(percentiles[i] * sorted.length) - 1;
+            out[i] = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+        return out;
+    }
+}
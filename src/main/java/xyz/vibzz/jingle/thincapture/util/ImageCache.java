@@ -0,0 +1,129 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of decoded background images, shared by background windows and
+ * capture fills. Layouts often reuse one large wallpaper across modes, and backgrounds are
+ * reloaded on every show or filter change, so each file is decoded once and every window
+ * draws from the same {@link BufferedImage}. Callers must treat returned images as
+ * read-only.
+ * <p>
+ * Entries are keyed by canonical path, modification time and size, so editing an image on
+ * disk picks up the new version on the next load. The least recently used images are
+ * evicted once the decoded total exceeds the configured cap; windows still showing an
+ * evicted image keep their reference.
+ */
+public final class ImageCache {
+    private static final Map<Key, BufferedImage> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long maxBytes = 256L * 1024 * 1024;
+    private static long cachedBytes = 0;
+
+    private ImageCache() {
+    }
+
+    /**
+     * @return the decoded image, or null if the file isn't an image ImageIO can read
+     * @throws IOException if the file can't be read
+     */
+    public static BufferedImage load(File file) throws IOException {
+        Key key = new Key(file.getCanonicalPath(), file.lastModified(), file.length());
+        synchronized (ImageCache.class) {
+            BufferedImage cached = CACHE.get(key);
+            if (cached != null) return cached;
+        }
+
+        // Decode outside the lock; two windows racing on the same new file just decode twice
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) return null;
+        synchronized (ImageCache.class) {
+            BufferedImage raced = CACHE.get(key);
+            if (raced != null) return raced;
+            // An older version of the same file won't be asked for again
+            Iterator<Map.Entry<Key, BufferedImage>> stale = CACHE.entrySet().iterator();
+            while (stale.hasNext()) {
+                Map.Entry<Key, BufferedImage> e = stale.next();
+                if (e.getKey().path.equals(key.path)) {
+                    cachedBytes -= sizeOf(e.getValue());
+                    stale.remove();
+                }
+            }
+            CACHE.put(key, image);
+            cachedBytes += sizeOf(image);
+            evict();
+        }
+        return image;
+    }
+
+    /**
+     * Sets the memory cap in megabytes, evicting images right away if the cache is over it.
+     * 0 disables caching.
+     */
+    public static synchronized void setMaxMegabytes(int megabytes) {
+        maxBytes = Math.max(0, megabytes) * 1024L * 1024L;
+        evict();
+    }
+
+    /**
+     * @return whether {@code image} is currently held by the cache, so its memory is
+     * already counted in {@link #getMemoryBytes()}
+     */
+    public static synchronized boolean holds(BufferedImage image) {
+        for (BufferedImage cached : CACHE.values()) {
+            if (cached == image) return true;
+        }
+        return false;
+    }
+
+    /** Approximate memory held by cached images. */
+    public static synchronized long getMemoryBytes() {
+        return cachedBytes;
+    }
+
+    public static synchronized void clear() {
+        CACHE.clear();
+        cachedBytes = 0;
+    }
+
+    private static void evict() {
+        Iterator<BufferedImage> it = CACHE.values().iterator();
+        while (cachedBytes > maxBytes && it.hasNext()) {
+            cachedBytes -= sizeOf(it.next());
+            it.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static final class Key {
+        final String path;
+        final long modified;
+        final long size;
+
+        Key(String path, long modified, long size) {
+            this.path = path;
+            this.modified = modified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return modified == k.modified && size == k.size && path.equals(k.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return (path.hashCode() * 31 + Long.hashCode(modified)) * 31 + Long.hashCode(size);
+        }
+    }
+}
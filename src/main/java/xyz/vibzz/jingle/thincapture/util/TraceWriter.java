@@ -0,0 +1,281 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import org.apache.logging.log4j.Level;
+import xyz.duncanruns.jingle.Jingle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Opt-in per-tick timing trace for post-mortem analysis. Records go into a fixed-size
+ * in-memory ring and a background thread appends them to rolling CSV files, one row per
+ * tick or mode switch, ready to open in a spreadsheet.
+ * <p>
+ * Recording never blocks: a writer claims a slot with one atomic increment and publishes
+ * an immutable record into it with one compare-and-set, so the flusher sees either the whole
+ * record or none of it. If the flusher falls a whole ring behind, the oldest records are
+ * dropped and counted instead of stalling the tick thread.
+ */
+public final class TraceWriter {
+    private static final int CAPACITY = 8192; // power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final long FLUSH_MS = 1000;
+    private static final long MAX_FILE_BYTES = 16L * 1024 * 1024;
+    private static final int MAX_FILES = 5;
+    private static final String HEADER = "epoch_ms,elapsed_ms,event,frame,capture_us,filter_us,present_us,detail";
+
+    static final byte TICK = 0;
+    static final byte MODE = 1;
+    static final byte DROPPED = 2;
+
+    private static volatile TraceWriter active = null;
+
+    private final Path folder;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ThinCapture-Trace");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // The ring: slot seq & MASK holds the latest record claimed for it
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicReferenceArray<Record> ring = new AtomicReferenceArray<>(CAPACITY);
+
+    // Flusher thread only
+    private long cursor = 0;
+    private long dropped = 0;
+    private OutputStream out;
+    private Path outPath;
+    private long outBytes;
+
+    TraceWriter(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Starts tracing into {@code thincapture-traces} under the Jingle folder, or does
+     * nothing if a trace is already running.
+     */
+    public static synchronized void start() {
+        if (active != null) return;
+        TraceWriter writer = new TraceWriter(Jingle.FOLDER.resolve("thincapture-traces"));
+        writer.flusher.scheduleWithFixedDelay(writer::flushSafely, FLUSH_MS, FLUSH_MS, TimeUnit.MILLISECONDS);
+        active = writer;
+        Jingle.log(Level.INFO, "ThinCapture timing trace started in " + writer.folder);
+    }
+
+    /**
+     * Stops tracing without waiting: the flusher thread writes out whatever is still
+     * buffered and closes the file. Safe to call from the Swing thread.
+     */
+    public static synchronized void stop() {
+        TraceWriter writer = active;
+        if (writer == null) return;
+        active = null;
+        writer.finish();
+    }
+
+    /**
+     * Stops tracing and waits up to two seconds for the buffered records to be written,
+     * for plugin shutdown.
+     */
+    public static void stopAndWait() {
+        TraceWriter writer;
+        synchronized (TraceWriter.class) {
+            writer = active;
+            if (writer == null) return;
+            active = null;
+            writer.finish();
+        }
+        try {
+            writer.flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a last flush and close behind any flush in progress; the periodic flush is
+     * cancelled by the shutdown.
+     */
+    private void finish() {
+        flusher.execute(() -> {
+            flushSafely();
+            close();
+        });
+        flusher.shutdown();
+    }
+
+    public static boolean isRunning() {
+        return active != null;
+    }
+
+    /**
+     * Records one capture tick. Stage durations are in nanoseconds, negative if the stage
+     * didn't run this tick.
+     */
+    public static void recordTick(String frame, long startNanos, long capture, long filter, long present) {
+        TraceWriter writer = active;
+        if (writer != null) writer.add(TICK, frame, startNanos, capture, filter, present, null);
+    }
+
+    /**
+     * Records a capture mode switch seen by the resize check.
+     *
+     * @param detail e.g. the new mode and client size
+     */
+    public static void recordMode(String mode, String detail) {
+        TraceWriter writer = active;
+        if (writer != null) writer.add(MODE, mode, System.nanoTime(), -1, -1, -1, detail);
+    }
+
+    void add(byte kind, String name, long time, long capture, long filter, long present, String detail) {
+        long seq = claimed.getAndIncrement();
+        int i = (int) (seq & MASK);
+        Record record = new Record(seq, kind, name, time, capture, filter, present, detail);
+        // A slot only moves forward: a writer preempted for a whole lap must not overwrite
+        // the newer record; its own record is counted as dropped instead
+        Record current;
+        do {
+            current = ring.get(i);
+            if (current != null && current.seq > seq) return;
+        } while (!ring.compareAndSet(i, current, record));
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            Jingle.log(Level.WARN, "ThinCapture timing trace: failed to write: " + t.getMessage());
+        }
+    }
+
+    synchronized void flush() throws IOException {
+        long end = claimed.get();
+        if (end - cursor > CAPACITY) {
+            dropped += end - CAPACITY - cursor;
+            cursor = end - CAPACITY;
+        }
+        StringBuilder sb = new StringBuilder();
+        while (cursor < end) {
+            Record r = ring.get((int) (cursor & MASK));
+            // Claimed but not published yet: pick it up next time
+            if (r == null || r.seq < cursor) break;
+            if (r.seq > cursor) {
+                // Already overwritten by a later lap
+                dropped++;
+                cursor++;
+                continue;
+            }
+            appendRow(sb, r.kind, r.name, r.time, r.capture, r.filter, r.present, r.detail);
+            cursor++;
+        }
+        if (dropped > 0) {
+            appendRow(sb, DROPPED, "", System.nanoTime(), -1, -1, -1, String.valueOf(dropped));
+            dropped = 0;
+        }
+        if (sb.length() > 0) write(sb.toString());
+    }
+
+    private void appendRow(StringBuilder sb, byte kind, String name, long time,
+                           long capture, long filter, long present, String detail) {
+        long elapsedNanos = time - startNanos;
+        sb.append(startMillis + elapsedNanos / 1_000_000).append(',')
+                .append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1_000_000.0)).append(',')
+                .append(kind == TICK ? "tick" : kind == MODE ? "mode" : "dropped").append(',')
+                .append(csv(name)).append(',');
+        appendMicros(sb, capture).append(',');
+        appendMicros(sb, filter).append(',');
+        appendMicros(sb, present).append(',');
+        sb.append(csv(detail)).append('\n');
+    }
+
+    private static StringBuilder appendMicros(StringBuilder sb, long nanos) {
+        return nanos < 0 ? sb : sb.append(String.format(Locale.ROOT, "%.1f", nanos / 1000.0));
+    }
+
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private void write(String rows) throws IOException {
+        if (out == null || outBytes >= MAX_FILE_BYTES) roll();
+        // Count encoded bytes: CJK capture names take three bytes per char in UTF-8
+        byte[] bytes = rows.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        out.flush();
+        outBytes += bytes.length;
+    }
+
+    /**
+     * Starts a new trace file and deletes the oldest ones beyond {@value #MAX_FILES}.
+     */
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(folder);
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        outPath = folder.resolve("trace-" + stamp + ".csv");
+        out = Files.newOutputStream(outPath);
+        byte[] header = (HEADER + '\n').getBytes(StandardCharsets.UTF_8);
+        out.write(header);
+        outBytes = header.length;
+
+        try (Stream<Path> files = Files.list(folder)) {
+            Path[] traces = files
+                    .filter(p -> p.getFileName().toString().startsWith("trace-") && p.getFileName().toString().endsWith(".csv"))
+                    .sorted()
+                    .toArray(Path[]::new);
+            for (int i = 0; i < traces.length - MAX_FILES; i++) {
+                Files.deleteIfExists(traces[i]);
+            }
+        }
+    }
+
+    synchronized void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            Jingle.log(Level.WARN, "ThinCapture timing trace: failed to close " + outPath + ": " + e.getMessage());
+        }
+        out = null;
+    }
+
+    private static final class Record {
+        final long seq;
+        final byte kind;
+        final String name;
+        final long time;
+        final long capture;
+        final long filter;
+        final long present;
+        final String detail;
+
+        Record(long seq, byte kind, String name, long time, long capture, long filter, long present, String detail) {
+            this.seq = seq;
+            this.kind = kind;
+            this.name = name;
+            this.time = time;
+            this.capture = capture;
+            this.filter = filter;
+            this.present = present;
+            this.detail = detail;
+        }
+    }
+}
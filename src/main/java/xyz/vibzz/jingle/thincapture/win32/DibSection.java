@@ -0,0 +1,121 @@
+package xyz.vibzz.jingle.thincapture.win32;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.GDI32;
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinGDI;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.ptr.PointerByReference;
+
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A 32-bit top-down DIB section selected into its own memory DC, kept alive between
+ * frames and only recreated when the requested size changes.
+ * <p>
+ * The pixel memory is exposed as a little-endian {@link IntBuffer}, so each int is a
+ * (premultiplied) ARGB value laid out as the BGRA bytes GDI expects.
+ * Not thread-safe: only touch it from the thread that runs the capture ticks.
+ */
+public class DibSection {
+    private WinDef.HDC memDC;
+    private WinDef.HBITMAP hBitmap;
+    private WinNT.HANDLE oldBitmap;
+    private Pointer bits;
+    private IntBuffer pixels;
+    private int width = -1;
+    private int height = -1;
+
+    // Only used on (re)creation, but kept so a resize doesn't allocate native structures either
+    private final WinGDI.BITMAPINFO bmi = new WinGDI.BITMAPINFO();
+    private final PointerByReference ppvBits = new PointerByReference();
+
+    public DibSection() {
+        bmi.bmiHeader.biSize = bmi.bmiHeader.size();
+        bmi.bmiHeader.biPlanes = 1;
+        bmi.bmiHeader.biBitCount = 32;
+        bmi.bmiHeader.biCompression = WinGDI.BI_RGB;
+    }
+
+    /**
+     * Makes sure a DIB of the given size exists, recreating it only on size change.
+     *
+     * @return false if the GDI objects could not be created
+     */
+    public boolean ensure(int w, int h) {
+        if (memDC != null && w == width && h == height) return true;
+        release();
+
+        WinDef.HDC screenDC = User32.INSTANCE.GetDC(null);
+        try {
+            memDC = GDI32Extra.INSTANCE.CreateCompatibleDC(screenDC);
+            if (memDC == null) return false;
+
+            bmi.bmiHeader.biWidth = w;
+            bmi.bmiHeader.biHeight = -h;
+            ppvBits.setValue(null);
+            hBitmap = GDI32.INSTANCE.CreateDIBSection(memDC, bmi, WinGDI.DIB_RGB_COLORS, ppvBits, null, 0);
+            if (hBitmap == null || ppvBits.getValue() == null) {
+                release();
+                return false;
+            }
+            oldBitmap = GDI32.INSTANCE.SelectObject(memDC, hBitmap);
+
+            bits = ppvBits.getValue();
+            pixels = bits.getByteBuffer(0, (long) w * h * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            width = w;
+            height = h;
+            return true;
+        } finally {
+            User32.INSTANCE.ReleaseDC(null, screenDC);
+        }
+    }
+
+    public WinDef.HDC getDC() {
+        return memDC;
+    }
+
+    public Pointer getBits() {
+        return bits;
+    }
+
+    /** The DIB memory as {@code width * height} little-endian ARGB ints. */
+    public IntBuffer getPixels() {
+        return pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** Size of the pixel memory currently allocated, 0 when released. */
+    public long getMemoryBytes() {
+        return memDC != null ? (long) width * height * 4 : 0;
+    }
+
+    /**
+     * Deletes the bitmap and memory DC. Safe to call repeatedly.
+     */
+    public void release() {
+        if (memDC != null) {
+            if (oldBitmap != null) GDI32.INSTANCE.SelectObject(memDC, oldBitmap);
+            if (hBitmap != null) GDI32.INSTANCE.DeleteObject(hBitmap);
+            GDI32.INSTANCE.DeleteDC(memDC);
+        } else if (hBitmap != null) {
+            GDI32.INSTANCE.DeleteObject(hBitmap);
+        }
+        memDC = null;
+        hBitmap = null;
+        oldBitmap = null;
+        bits = null;
+        pixels = null;
+        width = -1;
+        height = -1;
+    }
+}
@@ -0,0 +1,95 @@
+package xyz.vibzz.jingle.thincapture.win32;
+
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinUser;
+import org.apache.logging.log4j.Level;
+import xyz.duncanruns.jingle.Jingle;
+
+/**
+ * Calls back when Windows reports a display configuration change: monitors added, removed
+ * or moved, resolution changes and scale changes. Windows only broadcasts these to
+ * top-level windows, so this owns a hidden one and pumps its messages on a daemon thread.
+ */
+public final class DisplayChangeWatcher {
+    private static final int WM_SETTINGCHANGE = 0x001A;
+    private static final int WM_DISPLAYCHANGE = 0x007E;
+    private static final int WM_DPICHANGED = 0x02E0;
+    private static final String CLASS_NAME = "ThinCaptureDisplayWatcher";
+
+    private final Runnable onChange;
+    // Kept as a field so the callback isn't collected while Windows still calls it
+    private final WinUser.WindowProc windowProc = this::windowProc;
+    private volatile WinDef.HWND hwnd;
+    private volatile boolean stopped = false;
+    private Thread thread;
+
+    public DisplayChangeWatcher(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        stopped = false;
+        thread = new Thread(this::run, "ThinCapture-DisplayWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        WinDef.HWND h = hwnd;
+        if (h != null) User32.INSTANCE.PostMessage(h, WinUser.WM_CLOSE, null, null);
+        thread = null;
+    }
+
+    private void run() {
+        WinDef.HINSTANCE instance = Kernel32.INSTANCE.GetModuleHandle(null);
+        try {
+            WinUser.WNDCLASSEX wc = new WinUser.WNDCLASSEX();
+            wc.hInstance = instance;
+            wc.lpfnWndProc = windowProc;
+            wc.lpszClassName = CLASS_NAME;
+            User32.INSTANCE.RegisterClassEx(wc);
+
+            // Never shown; a plain hidden top-level window still receives broadcasts
+            hwnd = User32.INSTANCE.CreateWindowEx(0, CLASS_NAME, CLASS_NAME, 0, 0, 0, 0, 0,
+                    null, null, instance, null);
+            if (hwnd == null) {
+                Jingle.log(Level.WARN, "ThinCapture: couldn't create the display change window, error " + Kernel32.INSTANCE.GetLastError());
+                return;
+            }
+            // stop() may have run before the window existed
+            if (stopped) User32.INSTANCE.PostMessage(hwnd, WinUser.WM_CLOSE, null, null);
+
+            WinUser.MSG msg = new WinUser.MSG();
+            while (User32.INSTANCE.GetMessage(msg, null, 0, 0) > 0) {
+                User32.INSTANCE.TranslateMessage(msg);
+                User32.INSTANCE.DispatchMessage(msg);
+            }
+        } catch (Throwable t) {
+            Jingle.log(Level.WARN, "ThinCapture: display change watcher stopped: " + t.getMessage());
+        } finally {
+            hwnd = null;
+            User32.INSTANCE.UnregisterClass(CLASS_NAME, instance);
+        }
+    }
+
+    private WinDef.LRESULT windowProc(WinDef.HWND h, int msg, WinDef.WPARAM wParam, WinDef.LPARAM lParam) {
+        switch (msg) {
+            case WM_DISPLAYCHANGE:
+            case WM_SETTINGCHANGE:
+            case WM_DPICHANGED:
+                onChange.run();
+                break;
+            case WinUser.WM_CLOSE:
+                User32.INSTANCE.DestroyWindow(h);
+                return new WinDef.LRESULT(0);
+            case WinUser.WM_DESTROY:
+                User32.INSTANCE.PostQuitMessage(0);
+                return new WinDef.LRESULT(0);
+        }
+        return User32.INSTANCE.DefWindowProc(h, msg, wParam, lParam);
+    }
+}
@@ -0,0 +1,39 @@
+package xyz.vibzz.jingle.thincapture.win32;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.win32.StdCallLibrary;
+
+import java.util.Collections;
+
+/**
+ * Direct-mapped ({@link Native#register}) gdi32 bindings for the blits made on every capture
+ * tick, see {@link User32Direct}.
+ */
+public final class GDI32Direct {
+    public static final int SRCCOPY = 0x00CC0020;
+
+    static {
+        Native.register(GDI32Direct.class, NativeLibrary.getInstance("gdi32",
+                Collections.singletonMap(Library.OPTION_CALLING_CONVENTION, StdCallLibrary.STDCALL_CONVENTION)));
+    }
+
+    private GDI32Direct() {
+    }
+
+    public static native boolean BitBlt(Pointer hdcDest, int nXDest, int nYDest, int nWidth, int nHeight,
+                                        Pointer hdcSrc, int nXSrc, int nYSrc, int dwRop);
+
+    public static native boolean StretchBlt(Pointer hdcDest, int xDest, int yDest, int wDest, int hDest,
+                                            Pointer hdcSrc, int xSrc, int ySrc, int wSrc, int hSrc, int rop);
+
+    public static native int SetStretchBltMode(Pointer hdc, int mode);
+
+    /**
+     * Must follow every switch to HALFTONE: the docs require the brush origin to be reset
+     * after it, or halftoned output can come out misaligned.
+     */
+    public static native boolean SetBrushOrgEx(Pointer hdc, int x, int y, Pointer lppt);
+}
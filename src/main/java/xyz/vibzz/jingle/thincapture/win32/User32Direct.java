@@ -0,0 +1,41 @@
+package xyz.vibzz.jingle.thincapture.win32;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinUser;
+import com.sun.jna.win32.StdCallLibrary;
+
+import java.util.Collections;
+
+/**
+ * Direct-mapped ({@link Native#register}) user32 bindings for the calls made on every capture
+ * tick. Unlike the interface-mapped {@code INSTANCE} proxies, these skip the reflective
+ * invocation handler and argument boxing. Handles are passed as raw {@link Pointer}s.
+ */
+public final class User32Direct {
+    static {
+        Native.register(User32Direct.class, NativeLibrary.getInstance("user32",
+                Collections.singletonMap(Library.OPTION_CALLING_CONVENTION, StdCallLibrary.STDCALL_CONVENTION)));
+    }
+
+    private User32Direct() {
+    }
+
+    public static native Pointer GetDC(Pointer hWnd);
+
+    public static native int ReleaseDC(Pointer hWnd, Pointer hDC);
+
+    public static native boolean GetWindowRect(Pointer hWnd, WinDef.RECT lpRect);
+
+    public static native boolean GetClientRect(Pointer hWnd, WinDef.RECT lpRect);
+
+    public static native boolean ClientToScreen(Pointer hWnd, WinDef.POINT lpPoint);
+
+    public static native boolean UpdateLayeredWindow(Pointer hWnd, Pointer hdcDst,
+                                                     WinDef.POINT pptDst, WinUser.SIZE psize,
+                                                     Pointer hdcSrc, WinDef.POINT pptSrc,
+                                                     int crKey, WinUser.BLENDFUNCTION pblend, int dwFlags);
+}
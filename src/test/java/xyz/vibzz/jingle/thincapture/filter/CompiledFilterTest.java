@@ -0,0 +1,63 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledFilterTest {
+    @Test
+    void tableMatchesDirectEvaluation() {
+        List<CaptureFilter> chain = chain(new ColorKeyFilter(0xFFD800, 40), new LuminanceFilter(140),
+                new InvertFilter(), new ColorKeyFilter(0xC00000, 24));
+        CompiledFilter compiled = FilterChain.compile(chain);
+        compiled.buildLut(false);
+        assertTrue(compiled.hasLut());
+
+        Random random = new Random(9);
+        for (int i = 0; i < 200_000; i++) {
+            int rgb = i < 256 ? i * 0x010101 : random.nextInt();
+            boolean keep = false;
+            for (CaptureFilter f : chain) keep = f.apply(keep, rgb);
+            assertEquals(keep ? -1 : 0, compiled.mask(rgb), String.format("#%08X", rgb));
+        }
+    }
+
+    @Test
+    void singleComparisonChainsSkipTheTable() {
+        assertFalse(FilterChain.compile(chain()).usesLut());
+        assertFalse(FilterChain.compile(chain(new ThresholdFilter(200))).usesLut());
+        assertFalse(FilterChain.compile(chain(new LuminanceFilter(200))).usesLut());
+        assertFalse(FilterChain.compile(chain(new InvertFilter())).usesLut());
+        assertTrue(FilterChain.compile(chain(new ColorKeyFilter(0xFF0000, 10))).usesLut());
+        assertTrue(FilterChain.compile(chain(new ThresholdFilter(200), new InvertFilter())).usesLut());
+    }
+
+    @Test
+    void onlyTheLastRequestedChainGetsATable() throws InterruptedException {
+        // Typing "123" into a threshold field compiles three chains in quick succession
+        List<CompiledFilter> typed = new ArrayList<>();
+        for (int t : new int[]{1, 12, 123}) {
+            typed.add(FilterChain.compile(chain(new ThresholdFilter(t), new ColorKeyFilter(0x00FF00, 7))));
+        }
+        CompiledFilter last = typed.get(typed.size() - 1);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!last.hasLut() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(last.hasLut());
+        for (int i = 0; i < typed.size() - 1; i++) {
+            assertFalse(typed.get(i).hasLut(), "chain " + i);
+        }
+    }
+
+    private static List<CaptureFilter> chain(CaptureFilter... filters) {
+        return new ArrayList<>(Arrays.asList(filters));
+    }
+}
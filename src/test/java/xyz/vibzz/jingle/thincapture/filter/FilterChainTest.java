@@ -0,0 +1,135 @@
+package xyz.vibzz.jingle.thincapture.filter;
+
+import org.junit.jupiter.api.Test;
+import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+import xyz.vibzz.jingle.thincapture.config.FilterConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chains are evaluated left to right from "discard": matching filters add to the kept set
+ * and invert flips everything decided so far.
+ */
+class FilterChainTest {
+    private static final int WHITE = 0xFFFFFF;
+    private static final int BLACK = 0x000000;
+    private static final int GREY = 0x808080;
+    private static final int YELLOW = 0xFFFF00;
+    private static final int RED = 0xFF0000;
+
+    @Test
+    void emptyFilterListIsTheOldSingleThreshold() {
+        CaptureConfig c = new CaptureConfig("test");
+        c.textThreshold = 180;
+        CompiledFilter compiled = FilterChain.compile(c);
+        assertSame(FilterChain.threshold(180), compiled);
+        for (int rgb : sampleColors()) {
+            assertEquals(ThresholdFilter.matches(rgb, 180), compiled.matches(rgb), hex(rgb));
+        }
+        assertTrue(compiled.matches(0xB4B4B4));
+        assertFalse(compiled.matches(0xB4B4B3));
+    }
+
+    @Test
+    void thresholdThenInvertKeepsDarkPixels() {
+        CompiledFilter compiled = compile(new ThresholdFilter(200), new InvertFilter());
+        assertFalse(compiled.matches(WHITE));
+        assertTrue(compiled.matches(BLACK));
+        assertTrue(compiled.matches(GREY));
+    }
+
+    @Test
+    void matchingFiltersAddToTheKeptSet() {
+        CompiledFilter compiled = compile(new ThresholdFilter(200), new ColorKeyFilter(YELLOW, 16), new ColorKeyFilter(RED, 16));
+        assertTrue(compiled.matches(WHITE));
+        assertTrue(compiled.matches(0xF0F808));
+        assertTrue(compiled.matches(RED));
+        assertFalse(compiled.matches(GREY));
+        assertFalse(compiled.matches(0x00FF00));
+    }
+
+    @Test
+    void luminanceKeepsBrightColoursThresholdDrops() {
+        assertFalse(compile(new ThresholdFilter(200)).matches(YELLOW));
+        CompiledFilter luminance = compile(new LuminanceFilter(200));
+        assertTrue(luminance.matches(YELLOW));
+        assertFalse(luminance.matches(RED));
+    }
+
+    @Test
+    void invertOnlyFlipsWhatCameBeforeIt() {
+        CompiledFilter keyFirst = compile(new ColorKeyFilter(RED, 16), new InvertFilter(), new ThresholdFilter(200));
+        assertFalse(keyFirst.matches(RED));
+        assertTrue(keyFirst.matches(WHITE));
+        assertTrue(keyFirst.matches(BLACK));
+
+        CompiledFilter thresholdFirst = compile(new ThresholdFilter(200), new InvertFilter(), new ColorKeyFilter(RED, 16));
+        assertTrue(thresholdFirst.matches(RED));
+        assertFalse(thresholdFirst.matches(WHITE));
+        assertTrue(thresholdFirst.matches(BLACK));
+    }
+
+    @Test
+    void compiledChainsMatchFilterByFilterEvaluation() {
+        CaptureFilter odd = (keep, rgb) -> keep ^ ((rgb & 1) != 0);
+        List<List<CaptureFilter>> chains = Arrays.asList(
+                chain(),
+                chain(new ThresholdFilter(120)),
+                chain(new InvertFilter()),
+                chain(new LuminanceFilter(90), new InvertFilter(), new ColorKeyFilter(0x40A0C0, 40)),
+                chain(new ColorKeyFilter(RED, 60), new ThresholdFilter(230), new InvertFilter(), new InvertFilter()),
+                chain(new ThresholdFilter(150), odd, new LuminanceFilter(200))
+        );
+        for (List<CaptureFilter> chain : chains) {
+            CompiledFilter compiled = FilterChain.compile(chain);
+            for (int rgb : sampleColors()) {
+                boolean keep = false;
+                for (CaptureFilter f : chain) keep = f.apply(keep, rgb);
+                assertEquals(keep ? -1 : 0, compiled.mask(rgb), chain.size() + " filters, " + hex(rgb));
+            }
+        }
+    }
+
+    @Test
+    void fromConfigBuildsFiltersInOrder() {
+        CaptureConfig c = new CaptureConfig("test");
+        FilterConfig key = new FilterConfig(FilterConfig.COLOR_KEY);
+        key.color = "#FF0000";
+        key.tolerance = 10;
+        c.filters.add(key);
+        c.filters.add(new FilterConfig(FilterConfig.INVERT));
+        List<CaptureFilter> chain = FilterChain.fromConfig(c);
+        assertEquals(2, chain.size());
+        assertEquals(RED, ((ColorKeyFilter) chain.get(0)).color);
+        assertEquals(10, ((ColorKeyFilter) chain.get(0)).tolerance);
+        assertTrue(chain.get(1) instanceof InvertFilter);
+    }
+
+    private static CompiledFilter compile(CaptureFilter... filters) {
+        return FilterChain.compile(chain(filters));
+    }
+
+    private static List<CaptureFilter> chain(CaptureFilter... filters) {
+        return new ArrayList<>(Arrays.asList(filters));
+    }
+
+    private static int[] sampleColors() {
+        Random random = new Random(8);
+        int[] colors = new int[4096];
+        for (int i = 0; i < 256; i++) colors[i] = i * 0x010101;
+        for (int i = 256; i < colors.length; i++) colors[i] = random.nextInt() & 0xFFFFFF;
+        return colors;
+    }
+
+    private static String hex(int rgb) {
+        return String.format("#%06X", rgb);
+    }
+}
@@ -0,0 +1,92 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import org.junit.jupiter.api.Test;
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+import xyz.vibzz.jingle.thincapture.filter.FilterChain;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static xyz.vibzz.jingle.thincapture.pipeline.PipelineReference.*;
+
+/**
+ * Every kernel variant must match the per-pixel reference exactly, whatever the sizes,
+ * background and band split.
+ */
+class FilterKernelTest {
+    private static final CompiledFilter FILTER = FilterChain.threshold(200);
+    private static final int SOLID = 0xFF203040;
+    private static final int BANDS = 3;
+
+    @Test
+    void fullFrameMatchesReference() {
+        forEachCase((src, srcW, srcH, outW, outH, bgPre, solidPre, expected, what) -> {
+            ScaleTables scale = new ScaleTables();
+            scale.ensure(srcW, srcH, outW, outH);
+            IntBuffer dst = IntBuffer.allocate(outW * outH);
+            FilterKernel.filterToBgra(src, srcW, srcH, dst, outW, outH, FILTER, bgPre, solidPre, scale);
+            assertArrayEquals(expected, toArray(dst, outW * outH), "filterToBgra " + what);
+        });
+    }
+
+    @Test
+    void atSourceMatchesReference() {
+        forEachCase((src, srcW, srcH, outW, outH, bgPre, solidPre, expected, what) -> {
+            ScaleTables scale = new ScaleTables();
+            scale.ensure(srcW, srcH, outW, outH);
+            IntBuffer dst = IntBuffer.allocate(outW * outH);
+            FilterKernel.filterAtSourceToBgra(src, srcW, srcH, dst, outW, outH, FILTER, bgPre, solidPre,
+                    new int[srcW * srcH], new int[outW], scale);
+            assertArrayEquals(expected, toArray(dst, outW * outH), "filterAtSourceToBgra " + what);
+        });
+    }
+
+    @Test
+    void parallelBandsMatchReference() {
+        forEachCase((src, srcW, srcH, outW, outH, bgPre, solidPre, expected, what) -> {
+            ScaleTables scale = new ScaleTables();
+            scale.ensure(srcW, srcH, outW, outH);
+            int bands = Math.min(BANDS, outH);
+
+            IntBuffer dst = IntBuffer.allocate(outW * outH);
+            ParallelFilter.filterToBgra(src, srcW, dst, outW, outH, FILTER, bgPre, solidPre, scale, bands);
+            assertArrayEquals(expected, toArray(dst, outW * outH), "parallel filterToBgra " + what);
+
+            dst = IntBuffer.allocate(outW * outH);
+            int[][] rows = new int[bands][outW];
+            ParallelFilter.filterAtSourceToBgra(src, srcW, dst, outW, outH, FILTER, bgPre, solidPre,
+                    new int[srcW * srcH], rows, scale, bands);
+            assertArrayEquals(expected, toArray(dst, outW * outH), "parallel filterAtSourceToBgra " + what);
+        });
+    }
+
+    private interface Case {
+        void check(int[] src, int srcW, int srcH, int outW, int outH,
+                   int[] bgPre, int solidPre, int[] expected, String what);
+    }
+
+    /**
+     * Runs {@code c} for every source size and ratio, over a transparent, a solid and an
+     * image background.
+     */
+    private static void forEachCase(Case c) {
+        for (int[] size : SOURCE_SIZES) {
+            int srcW = size[0];
+            int srcH = size[1];
+            int[] src = frames(srcW, srcH, srcW * 31L + srcH)[0];
+            for (double ratio : RATIOS) {
+                int outW = scaled(srcW, ratio);
+                int outH = scaled(srcH, ratio);
+                String what = describe(srcW, srcH, outW, outH);
+                int[] image = background(outW * outH, outW);
+
+                c.check(src, srcW, srcH, outW, outH, null, 0,
+                        filter(src, srcW, srcH, outW, outH, FILTER, null, 0), what + " transparent");
+                c.check(src, srcW, srcH, outW, outH, null, SOLID,
+                        filter(src, srcW, srcH, outW, outH, FILTER, null, SOLID), what + " solid");
+                c.check(src, srcW, srcH, outW, outH, image, 0,
+                        filter(src, srcW, srcH, outW, outH, FILTER, image, 0), what + " image");
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import org.junit.jupiter.api.Test;
+import xyz.vibzz.jingle.thincapture.config.CaptureConfig;
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+import xyz.vibzz.jingle.thincapture.filter.FilterChain;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.vibzz.jingle.thincapture.pipeline.PipelineReference.*;
+
+/**
+ * Runs the whole pipeline headless over a sequence of frames. Small edits between frames
+ * take the dirty-tile path, which must leave the presenter exactly as a full redraw would.
+ * Backgrounds are transparent, solid or an image stretched to the output; smoothing
+ * upscalers must match classifying the source and upscaling it directly.
+ */
+class FilterPipelineTest {
+    private static final CompiledFilter FILTER = FilterChain.threshold(200);
+    private static final Color SOLID = new Color(0x203040);
+    private static final BufferedImage IMAGE = backgroundImage(61, 43, 5);
+    private static final String[] SCALERS = {CaptureConfig.SCALER_BILINEAR, CaptureConfig.SCALER_SCALE2X};
+
+    @Test
+    void everyFrameMatchesReference() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            for (int[] size : SOURCE_SIZES) {
+                for (double ratio : RATIOS) {
+                    check(size[0], size[1], scaled(size[0], ratio), scaled(size[1], ratio), parallel, true);
+                    check(size[0], size[1], scaled(size[0], ratio), scaled(size[1], ratio), parallel, false);
+                }
+            }
+        }
+    }
+
+    @Test
+    void imageBackgroundMatchesReference() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            for (int[] size : SOURCE_SIZES) {
+                for (double ratio : RATIOS) {
+                    check(size[0], size[1], scaled(size[0], ratio), scaled(size[1], ratio), parallel, false, IMAGE, null);
+                }
+            }
+        }
+    }
+
+    @Test
+    void upscalersMatchClassifyThenUpscale() {
+        for (String scaler : SCALERS) {
+            for (int[] size : SOURCE_SIZES) {
+                for (double ratio : RATIOS) {
+                    int outW = scaled(size[0], ratio);
+                    int outH = scaled(size[1], ratio);
+                    check(size[0], size[1], outW, outH, false, true, null, scaler);
+                    check(size[0], size[1], outW, outH, false, false, null, scaler);
+                    check(size[0], size[1], outW, outH, true, false, IMAGE, scaler);
+                }
+            }
+        }
+    }
+
+    @Test
+    void backgroundImageIsRescaledWhenItOrTheOutputChanges() {
+        int[] frame = frames(101, 53, 6)[0];
+        BufferedImage other = backgroundImage(17, 90, 7);
+        FilterPipeline pipeline = new FilterPipeline();
+        pipeline.setFilter(FILTER);
+        pipeline.setBackground(false, SOLID, IMAGE);
+        MemoryPresenter presenter = new MemoryPresenter(202, 106);
+        pipeline.process(frame, 101, 53, presenter);
+        assertArrayEquals(filter(frame, 101, 53, 202, 106, FILTER, scaledBackground(IMAGE, 202, 106), 0),
+                toArray(presenter.getPixels(), 202 * 106), "first image");
+
+        pipeline.setBackground(false, SOLID, other);
+        pipeline.process(frame, 101, 53, presenter);
+        assertArrayEquals(filter(frame, 101, 53, 202, 106, FILTER, scaledBackground(other, 202, 106), 0),
+                toArray(presenter.getPixels(), 202 * 106), "swapped image");
+
+        MemoryPresenter resized = new MemoryPresenter(150, 80);
+        pipeline.process(frame, 101, 53, resized);
+        assertArrayEquals(filter(frame, 101, 53, 150, 80, FILTER, scaledBackground(other, 150, 80), 0),
+                toArray(resized.getPixels(), 150 * 80), "resized output");
+        pipeline.release();
+    }
+
+    @Test
+    void unchangedFrameIsNotPresented() {
+        int[] frame = frames(280, 1000, 1)[0];
+        FilterPipeline pipeline = new FilterPipeline();
+        pipeline.setFilter(FILTER);
+        MemoryPresenter presenter = new MemoryPresenter(560, 2000);
+        assertTrue(pipeline.process(frame, 280, 1000, presenter));
+        assertFalse(pipeline.process(frame.clone(), 280, 1000, presenter));
+        assertEquals(1, presenter.getPresentCount());
+
+        pipeline.invalidate();
+        assertTrue(pipeline.process(frame, 280, 1000, presenter));
+    }
+
+    private static void check(int srcW, int srcH, int outW, int outH, boolean parallel, boolean transparent) {
+        check(srcW, srcH, outW, outH, parallel, transparent, null, null);
+    }
+
+    /**
+     * @param image  background image, or null for solid {@link #SOLID}; ignored when {@code transparent}
+     * @param scaler {@link CaptureConfig#scaler} name, or null for nearest-neighbour
+     */
+    private static void check(int srcW, int srcH, int outW, int outH, boolean parallel, boolean transparent,
+                              BufferedImage image, String scaler) {
+        int[][] frames = frames(srcW, srcH, srcW * 17L + srcH);
+        int solidPre = transparent ? 0 : 0xFF000000 | SOLID.getRGB();
+        int[] bgPre = image != null && !transparent ? scaledBackground(image, outW, outH) : null;
+        boolean upscaled = scaler != null && (long) outW * outH > (long) srcW * srcH;
+        FilterPipeline pipeline = new FilterPipeline();
+        pipeline.setFilter(FILTER);
+        pipeline.setParallel(parallel);
+        pipeline.setBackground(transparent, SOLID, image);
+        pipeline.setUpscaler(Upscalers.create(scaler));
+        MemoryPresenter presenter = new MemoryPresenter(outW, outH);
+        String what = describe(srcW, srcH, outW, outH) + (parallel ? " parallel" : "")
+                + (transparent ? " transparent" : image != null ? " image" : " solid")
+                + (scaler != null ? " " + scaler : "");
+
+        // A full frame, a small edit on top of it, the edit undone, then the next frame
+        int[] edited = frames[0].clone();
+        int bx = srcW / 3;
+        int by = srcH / 3;
+        for (int y = by; y < Math.min(srcH, by + 9); y++) {
+            for (int x = bx; x < Math.min(srcW, bx + 9); x++) {
+                edited[y * srcW + x] = (x + y) % 2 == 0 ? 0xFFFFFF : 0x000000;
+            }
+        }
+        int[][] sequence = {frames[0], edited, frames[0], frames[1]};
+        for (int i = 0; i < sequence.length; i++) {
+            int[] src = sequence[i].clone();
+            pipeline.process(src, srcW, srcH, presenter);
+            int[] expected = upscaled
+                    ? upscale(src, srcW, srcH, outW, outH, FILTER, Upscalers.create(scaler), bgPre, solidPre)
+                    : filter(src, srcW, srcH, outW, outH, FILTER, bgPre, solidPre);
+            assertArrayEquals(expected, toArray(presenter.getPixels(), outW * outH), what + " frame " + i);
+        }
+        pipeline.release();
+    }
+}
@@ -0,0 +1,101 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import xyz.vibzz.jingle.thincapture.capture.MemorySource;
+import xyz.vibzz.jingle.thincapture.filter.CompiledFilter;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+/**
+ * Straightforward per-pixel versions of the filtered path, written for clarity rather than
+ * speed, and the sizes the optimised kernels are checked at.
+ */
+final class PipelineReference {
+    /** Source sizes: Thin BT, Planar Abuse, and odd sizes that don't line up with tiles or bands. */
+    static final int[][] SOURCE_SIZES = {{280, 1000}, {1920, 300}, {37, 53}, {101, 7}};
+    /** Output size as a multiple of the source, from downscaling to upscaling. */
+    static final double[] RATIOS = {0.33, 0.75, 1, 1.5, 3};
+
+    private PipelineReference() {
+    }
+
+    /**
+     * Nearest-neighbour with Java2D's pixel-centre rule, then the text test per output pixel.
+     */
+    static int[] filter(int[] src, int srcW, int srcH, int outW, int outH,
+                        CompiledFilter filter, int[] bgPre, int solidPre) {
+        int[] out = new int[outW * outH];
+        for (int y = 0; y < outH; y++) {
+            int sy = (int) ((2L * y + 1) * srcH / (2L * outH));
+            for (int x = 0; x < outW; x++) {
+                int sx = (int) ((2L * x + 1) * srcW / (2L * outW));
+                int p = src[sy * srcW + sx];
+                int o = y * outW + x;
+                out[o] = filter.matches(p) ? p | 0xFF000000 : bgPre != null ? bgPre[o] : solidPre;
+            }
+        }
+        return out;
+    }
+
+    /** Two consecutive synthetic game frames with debug text. */
+    static int[][] frames(int w, int h, long seed) {
+        MemorySource source = MemorySource.synthetic(w, h, true, 2, seed);
+        return new int[][]{source.capture(null, null), source.capture(null, null)};
+    }
+
+    static int scaled(int len, double ratio) {
+        return Math.max(1, (int) Math.round(len * ratio));
+    }
+
+    /** Random opaque premultiplied background of {@code n} pixels. */
+    static int[] background(int n, long seed) {
+        Random random = new Random(seed);
+        int[] bg = new int[n];
+        for (int i = 0; i < n; i++) bg[i] = 0xFF000000 | random.nextInt(0x1000000);
+        return bg;
+    }
+
+    /** A small random image with varying alpha, to be stretched as a capture background. */
+    static BufferedImage backgroundImage(int w, int h, long seed) {
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) image.setRGB(x, y, random.nextInt());
+        }
+        return image;
+    }
+
+    /** {@code image} stretched to the output the way capture backgrounds are: bilinear, premultiplied. */
+    static int[] scaledBackground(BufferedImage image, int w, int h) {
+        BufferedImage scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = scaled.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(image, 0, 0, w, h, null);
+        g2.dispose();
+        return ((DataBufferInt) scaled.getRaster().getDataBuffer()).getData();
+    }
+
+    /** Classifies the source pixel by pixel, then runs a fresh {@code upscaler} over it. */
+    static int[] upscale(int[] src, int srcW, int srcH, int outW, int outH, CompiledFilter filter,
+                         Upscaler upscaler, int[] bgPre, int solidPre) {
+        int[] fg = new int[srcW * srcH];
+        for (int i = 0; i < fg.length; i++) fg[i] = filter.matches(src[i]) ? src[i] | 0xFF000000 : 0;
+        IntBuffer dst = IntBuffer.allocate(outW * outH);
+        upscaler.upscale(fg, srcW, srcH, dst, outW, outH, bgPre, solidPre);
+        upscaler.release();
+        return toArray(dst, outW * outH);
+    }
+
+    static int[] toArray(IntBuffer buffer, int n) {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = buffer.get(i);
+        return out;
+    }
+
+    static String describe(int srcW, int srcH, int outW, int outH) {
+        return srcW + "x" + srcH + " -> " + outW + "x" + outH;
+    }
+}
@@ -0,0 +1,41 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScaleTablesTest {
+    private static final int[] LENGTHS = {1, 2, 3, 7, 32, 53, 280, 300, 1000, 1920};
+
+    @Test
+    void indexUsesPixelCentres() {
+        ScaleTables scale = new ScaleTables();
+        for (int srcLen : LENGTHS) {
+            for (int outLen : LENGTHS) {
+                scale.ensure(srcLen, 1, outLen, 1);
+                int[] index = scale.xIndex();
+                for (int i = 0; i < outLen; i++) {
+                    assertEquals((int) ((2L * i + 1) * srcLen / (2L * outLen)), index[i],
+                            srcLen + " -> " + outLen + " at " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void startIsFirstOutputSamplingSource() {
+        ScaleTables scale = new ScaleTables();
+        for (int srcLen : LENGTHS) {
+            for (int outLen : LENGTHS) {
+                scale.ensure(1, srcLen, 1, outLen);
+                int[] index = scale.yIndex();
+                int[] start = scale.yStart();
+                for (int s = 0; s <= srcLen; s++) {
+                    int expected = 0;
+                    while (expected < outLen && index[expected] < s) expected++;
+                    assertEquals(expected, start[s], srcLen + " -> " + outLen + " at " + s);
+                }
+            }
+        }
+    }
+}
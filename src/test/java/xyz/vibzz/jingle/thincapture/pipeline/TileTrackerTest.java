@@ -0,0 +1,72 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static xyz.vibzz.jingle.thincapture.pipeline.PipelineReference.frames;
+
+class TileTrackerTest {
+    // 3 columns with a partial last one, 2 rows with a partial last one
+    private static final int W = 2 * TileTracker.TILE + 5;
+    private static final int H = TileTracker.TILE + 9;
+
+    @Test
+    void firstFrameIsAllDirtyThenUnchangedFramesAreClean() {
+        TileTracker tracker = new TileTracker();
+        int[] src = frames(W, H, 1)[0];
+        assertEquals(6, tracker.update(src, W, H));
+        assertEquals(3, tracker.getColumns());
+        assertEquals(2, tracker.getRows());
+        assertEquals(0, tracker.update(src.clone(), W, H));
+    }
+
+    @Test
+    void onlyTheChangedTileIsDirty() {
+        TileTracker tracker = new TileTracker();
+        int[] src = frames(W, H, 2)[0];
+        tracker.update(src, W, H);
+
+        // Last pixel of the partial bottom-right tile
+        src[W * H - 1] ^= 0x000100;
+        assertEquals(1, tracker.update(src, W, H));
+        for (int row = 0; row < tracker.getRows(); row++) {
+            for (int col = 0; col < tracker.getColumns(); col++) {
+                assertEquals(col == 2 && row == 1, tracker.isDirty(col, row), col + "," + row);
+            }
+        }
+
+        // Two pixels on either side of the first column boundary
+        src[5 * W + TileTracker.TILE - 1] ^= 1;
+        src[5 * W + TileTracker.TILE] ^= 1;
+        assertEquals(2, tracker.update(src, W, H));
+        assertTrue(tracker.isDirty(0, 0));
+        assertTrue(tracker.isDirty(1, 0));
+        assertFalse(tracker.isDirty(2, 1));
+    }
+
+    @Test
+    void alphaChangesAreIgnored() {
+        TileTracker tracker = new TileTracker();
+        int[] src = frames(W, H, 3)[0];
+        tracker.update(src, W, H);
+        for (int i = 0; i < src.length; i++) src[i] ^= 0xFF000000;
+        assertEquals(0, tracker.update(src, W, H));
+    }
+
+    @Test
+    void invalidateAndResizeMarkEverythingDirty() {
+        TileTracker tracker = new TileTracker();
+        int[] src = frames(W, H, 4)[0];
+        tracker.update(src, W, H);
+        tracker.invalidate();
+        assertEquals(6, tracker.update(src, W, H));
+        assertEquals(0, tracker.update(src, W, H));
+
+        // Same pixels read as a different shape
+        assertEquals(6, tracker.update(src, H, W));
+        assertEquals(2, tracker.getColumns());
+        assertEquals(3, tracker.getRows());
+    }
+}
@@ -0,0 +1,118 @@
+package xyz.vibzz.jingle.thincapture.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.vibzz.jingle.thincapture.pipeline.PipelineReference.toArray;
+
+/**
+ * Fixed inputs for the packed-lane helpers and the smoothing upscalers. A carry from one
+ * channel into the next shows up as a wrong neighbouring channel here.
+ */
+class UpscalersTest {
+    private static final int T = 0xFFE0E0E0;
+
+    @Test
+    void overMatchesPerChannel() {
+        Random random = new Random(1);
+        for (int n = 0; n < 100_000; n++) {
+            int fg = premultiplied(random);
+            int bg = premultiplied(random);
+            int a = fg >>> 24;
+            int v = Upscalers.over(fg, bg);
+            for (int shift = 0; shift < 32; shift += 8) {
+                int expected = (fg >>> shift & 0xFF) + (bg >>> shift & 0xFF) * (255 - a) / 255;
+                assertEquals(expected, v >>> shift & 0xFF, 1, String.format("over(%08x, %08x)", fg, bg));
+            }
+        }
+    }
+
+    @Test
+    void lerpMatchesPerChannel() {
+        Random random = new Random(2);
+        for (int n = 0; n < 100_000; n++) {
+            int a = premultiplied(random);
+            int b = premultiplied(random);
+            int f = random.nextInt(257);
+            int v = Upscalers.lerp(a, b, f);
+            for (int shift = 0; shift < 32; shift += 8) {
+                int expected = ((a >>> shift & 0xFF) * (256 - f) + (b >>> shift & 0xFF) * f) >> 8;
+                assertEquals(expected, v >>> shift & 0xFF, 1, String.format("lerp(%08x, %08x, %d)", a, b, f));
+            }
+        }
+        assertEquals(0xFFFFFFFF, Upscalers.lerp(0, 0xFFFFFFFF, 256));
+        assertEquals(0, Upscalers.lerp(0, 0xFFFFFFFF, 0));
+    }
+
+    @Test
+    void uniformImageStaysUniform() {
+        int[] colours = {T, 0x80402010, 0xFFFFFFFF};
+        int[][] sizes = {{4, 4}, {7, 5}, {280, 10}, {33, 1}};
+        for (Upscaler upscaler : new Upscaler[]{new BilinearUpscaler(), new Scale2xUpscaler()}) {
+            for (int colour : colours) {
+                for (int[] size : sizes) {
+                    for (int factor = 1; factor <= 3; factor++) {
+                        int srcW = size[0], srcH = size[1];
+                        int outW = srcW * factor + factor - 1, outH = srcH * factor;
+                        int[] fg = new int[srcW * srcH];
+                        Arrays.fill(fg, colour);
+                        IntBuffer dst = IntBuffer.allocate(outW * outH);
+                        upscaler.upscale(fg, srcW, srcH, dst, outW, outH, null, 0xFF000000);
+
+                        int expected = Upscalers.over(colour, 0xFF000000);
+                        if (upscaler instanceof Scale2xUpscaler) expected = colour;
+                        int[] out = toArray(dst, outW * outH);
+                        for (int i = 0; i < out.length; i++) {
+                            assertEquals(expected, out[i], String.format("%s %08x %dx%d -> %dx%d at %d",
+                                    upscaler.getClass().getSimpleName(), colour, srcW, srcH, outW, outH, i));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void scale2xRoundsCheckerCorners() {
+        int[] fg = {
+                T, 0,
+                0, T
+        };
+        // EPX with edge pixels repeated outside the image
+        int[] expected = {
+                T, T, 0, 0,
+                T, 0, T, 0,
+                0, T, 0, T,
+                0, 0, T, T
+        };
+        IntBuffer dst = IntBuffer.allocate(16);
+        new Scale2xUpscaler().upscale(fg, 2, 2, dst, 4, 4, null, 0);
+        assertArrayEquals(expected, toArray(dst, 16));
+    }
+
+    @Test
+    void bilinearAtOneToOneIsIdentity() {
+        Random random = new Random(3);
+        int w = 37, h = 11;
+        int[] fg = new int[w * h];
+        for (int i = 0; i < fg.length; i++) {
+            fg[i] = random.nextInt(3) == 0 ? 0 : premultiplied(random);
+        }
+        IntBuffer dst = IntBuffer.allocate(w * h);
+        new BilinearUpscaler().upscale(fg, w, h, dst, w, h, null, 0);
+        assertArrayEquals(fg, toArray(dst, w * h));
+    }
+
+    /** A random premultiplied pixel: no colour channel above alpha. */
+    private static int premultiplied(Random random) {
+        int a = random.nextInt(256);
+        int r = random.nextInt(a + 1);
+        int g = random.nextInt(a + 1);
+        int b = random.nextInt(a + 1);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+}
@@ -0,0 +1,50 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * A 100% primary monitor with a 150% monitor to its right, so positions on the second
+ * monitor only come out right when taken relative to its own origin.
+ */
+class DisplayTransformsTest {
+    private static final DisplayTransforms.Monitor PRIMARY = new DisplayTransforms.Monitor(
+            new Rectangle(0, 0, 1920, 1080), new Rectangle(0, 0, 1920, 1080), 1.0, 1.0);
+    private static final DisplayTransforms.Monitor SECONDARY = new DisplayTransforms.Monitor(
+            new Rectangle(1920, 0, 1707, 960), new Rectangle(1920, 0, 2560, 1440), 1.5, 1.5);
+    private static final DisplayTransforms.Layout LAYOUT = new DisplayTransforms.Layout(
+            new DisplayTransforms.Monitor[]{PRIMARY, SECONDARY}, PRIMARY, new Rectangle(0, 0, 3627, 1080));
+
+    @Test
+    void picksMonitorHoldingMostOfRectangle() {
+        assertSame(PRIMARY, LAYOUT.forLogical(new Rectangle(100, 100, 300, 200)));
+        assertSame(SECONDARY, LAYOUT.forLogical(new Rectangle(2020, 100, 200, 100)));
+        // Straddling the edge, mostly on the second monitor
+        assertSame(SECONDARY, LAYOUT.forLogical(new Rectangle(1900, 100, 200, 100)));
+    }
+
+    @Test
+    void convertsRelativeToMonitorOrigin() {
+        Rectangle logical = new Rectangle(2020, 100, 200, 100);
+        Rectangle physical = LAYOUT.forLogical(logical).toPhysical(logical);
+        assertEquals(new Rectangle(2070, 150, 300, 150), physical);
+        assertEquals(new Rectangle(100, 100, 300, 200),
+                PRIMARY.toPhysical(new Rectangle(100, 100, 300, 200)));
+    }
+
+    @Test
+    void physicalPointsMapBack() {
+        assertSame(SECONDARY, LAYOUT.forPhysicalPoint(2500, 500));
+        assertSame(PRIMARY, LAYOUT.forPhysicalPoint(1919, 500));
+        // Off every monitor: the primary
+        assertSame(PRIMARY, LAYOUT.forPhysicalPoint(-10, -10));
+
+        Rectangle physical = new Rectangle(2070, 150, 300, 150);
+        assertEquals(new Rectangle(2020, 100, 200, 100),
+                LAYOUT.forPhysicalPoint(physical.x, physical.y).toLogical(physical));
+    }
+}
@@ -0,0 +1,140 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the pacer on a fake clock and an executor that only records what was scheduled, so
+ * every deadline can be checked exactly.
+ */
+class FramePacerTest {
+    private static final long MS = 1_000_000L;
+
+    private long now = 1000 * MS;
+    private final List<Scheduled> scheduled = new ArrayList<>();
+
+    @Test
+    void ticksAimAtAbsoluteDeadlines() {
+        FramePacer pacer = pacer(() -> {
+        });
+        long start = now;
+        pacer.start(100);
+        assertEquals(10 * MS, last().delayNanos);
+
+        // Fired 0.3 ms late: the next tick still aims at start + 20 ms
+        now = start + 10 * MS + 300_000;
+        last().run();
+        assertEquals(9_700_000, last().delayNanos);
+
+        now = start + 20 * MS;
+        last().run();
+        assertEquals(10 * MS, last().delayNanos);
+        assertEquals(2, pacer.getTicks());
+        assertEquals(0, pacer.getOverruns());
+    }
+
+    @Test
+    void overrunningTickSkipsMissedDeadlinesInsteadOfBursting() {
+        long start = now;
+        FramePacer pacer = pacer(() -> now += 35 * MS);
+        pacer.start(100);
+        now = start + 10 * MS;
+        last().run();
+
+        // The tick ended at +45 ms: the +20, +30 and +40 deadlines are dropped
+        assertEquals(2, scheduled.size());
+        assertEquals(5 * MS, last().delayNanos);
+        assertEquals(3, pacer.getOverruns());
+        assertEquals(1, pacer.getTicks());
+    }
+
+    @Test
+    void stopCancelsThePendingTick() {
+        int[] runs = {0};
+        FramePacer pacer = pacer(() -> runs[0]++);
+        pacer.start(60);
+        Scheduled pending = last();
+        pacer.stop();
+        assertTrue(pending.cancelled);
+
+        // A tick that was already on its way when stop() ran does nothing
+        pending.run();
+        assertEquals(0, runs[0]);
+        assertEquals(1, scheduled.size());
+    }
+
+    @Test
+    void restartDropsTheOldSchedule() {
+        int[] runs = {0};
+        FramePacer pacer = pacer(() -> runs[0]++);
+        pacer.start(60);
+        Scheduled old = last();
+        pacer.start(30);
+        assertTrue(old.cancelled);
+        assertEquals(1_000_000_000L / 30, last().delayNanos);
+
+        old.run();
+        assertEquals(0, runs[0]);
+        last().run();
+        assertEquals(1, runs[0]);
+    }
+
+    private FramePacer pacer(Runnable tick) {
+        return new FramePacer(recordingExecutor(), "test", tick, () -> now);
+    }
+
+    private Scheduled last() {
+        return scheduled.get(scheduled.size() - 1);
+    }
+
+    private ScheduledExecutorService recordingExecutor() {
+        return (ScheduledExecutorService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ScheduledExecutorService.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "schedule":
+                            Scheduled s = new Scheduled((Runnable) args[0], ((TimeUnit) args[2]).toNanos((Long) args[1]));
+                            scheduled.add(s);
+                            return s.future();
+                        case "isShutdown":
+                            return false;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static final class Scheduled {
+        final Runnable task;
+        final long delayNanos;
+        boolean cancelled;
+
+        Scheduled(Runnable task, long delayNanos) {
+            this.task = task;
+            this.delayNanos = delayNanos;
+        }
+
+        void run() {
+            task.run();
+        }
+
+        ScheduledFuture<?> future() {
+            return (ScheduledFuture<?>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{ScheduledFuture.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("cancel")) {
+                            cancelled = true;
+                            return true;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
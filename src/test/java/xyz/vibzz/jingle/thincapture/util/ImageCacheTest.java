@@ -0,0 +1,130 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Images of 512x512 decode to exactly 1 MiB, so the cap can be set in whole images.
+ */
+class ImageCacheTest {
+    private static final int SIDE = 512;
+    private static final long IMAGE_BYTES = 1024L * 1024;
+
+    private Path folder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("thincapture-image-test");
+        ImageCache.clear();
+        ImageCache.setMaxMegabytes(256);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ImageCache.clear();
+        ImageCache.setMaxMegabytes(256);
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    void sameFileIsDecodedOnceAndShared() throws IOException {
+        File file = png("a", 0x112233);
+        BufferedImage first = ImageCache.load(file);
+        assertSame(first, ImageCache.load(file));
+        assertTrue(ImageCache.holds(first));
+        // Shared by every window, so it's counted once
+        assertEquals(IMAGE_BYTES, ImageCache.getMemoryBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOverTheCap() throws IOException {
+        ImageCache.setMaxMegabytes(2);
+        File a = png("a", 1);
+        File b = png("b", 2);
+        File c = png("c", 3);
+        BufferedImage imageA = ImageCache.load(a);
+        BufferedImage imageB = ImageCache.load(b);
+        // Touching a makes b the least recently used
+        ImageCache.load(a);
+        BufferedImage imageC = ImageCache.load(c);
+
+        assertTrue(ImageCache.holds(imageA));
+        assertFalse(ImageCache.holds(imageB));
+        assertTrue(ImageCache.holds(imageC));
+        assertEquals(2 * IMAGE_BYTES, ImageCache.getMemoryBytes());
+        // An evicted image is decoded again on the next load
+        assertNotSame(imageB, ImageCache.load(b));
+    }
+
+    @Test
+    void loweringTheCapEvictsRightAway() throws IOException {
+        ImageCache.load(png("a", 1));
+        BufferedImage last = ImageCache.load(png("b", 2));
+        ImageCache.setMaxMegabytes(1);
+        assertEquals(IMAGE_BYTES, ImageCache.getMemoryBytes());
+        assertTrue(ImageCache.holds(last));
+
+        ImageCache.setMaxMegabytes(0);
+        assertEquals(0, ImageCache.getMemoryBytes());
+        assertFalse(ImageCache.holds(last));
+    }
+
+    @Test
+    void editedFileReplacesTheStaleVersion() throws IOException {
+        File file = png("a", 0x000000);
+        BufferedImage old = ImageCache.load(file);
+        ImageIO.write(solid(0xFFFFFF), "png", file);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+        BufferedImage edited = ImageCache.load(file);
+        assertNotSame(old, edited);
+        assertEquals(0xFFFFFF, edited.getRGB(0, 0) & 0xFFFFFF);
+        assertFalse(ImageCache.holds(old));
+        assertEquals(IMAGE_BYTES, ImageCache.getMemoryBytes());
+    }
+
+    @Test
+    void unreadableImageIsNotCached() throws IOException {
+        Path text = folder.resolve("not-an-image.png");
+        Files.write(text, "hello".getBytes());
+        assertNull(ImageCache.load(text.toFile()));
+        assertEquals(0, ImageCache.getMemoryBytes());
+    }
+
+    private File png(String name, int rgb) throws IOException {
+        File file = folder.resolve(name + ".png").toFile();
+        ImageIO.write(solid(rgb), "png", file);
+        return file;
+    }
+
+    private static BufferedImage solid(int rgb) {
+        BufferedImage image = new BufferedImage(SIDE, SIDE, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[SIDE];
+        Arrays.fill(row, rgb);
+        for (int y = 0; y < SIDE; y++) image.setRGB(0, y, SIDE, 1, row, 0, SIDE);
+        return image;
+    }
+}
@@ -0,0 +1,137 @@
+package xyz.vibzz.jingle.thincapture.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the ring directly, flushing by hand instead of on the flusher thread.
+ */
+class TraceWriterTest {
+    private static final int CAPACITY = 8192;
+
+    private Path folder;
+    private TraceWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("thincapture-trace-test");
+        writer = new TraceWriter(folder);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        writer.close();
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    void writesRecordsInOrderAcrossFlushes() throws IOException {
+        for (int i = 0; i < 10; i++) tick("a" + i);
+        writer.flush();
+        writer.add(TraceWriter.MODE, "thin", System.nanoTime(), -1, -1, -1, "280x1000");
+        for (int i = 10; i < 15; i++) tick("a" + i);
+        writer.flush();
+
+        List<String[]> rows = rows();
+        assertEquals(16, rows.size());
+        for (int i = 0; i < 10; i++) assertEquals("a" + i, rows.get(i)[3]);
+        assertEquals("mode", rows.get(10)[2]);
+        assertEquals("280x1000", rows.get(10)[7]);
+        assertEquals("a14", rows.get(15)[3]);
+        // Durations are written in microseconds; missing stages stay empty
+        assertEquals("1.5", rows.get(0)[4]);
+        assertEquals("", rows.get(10)[4]);
+    }
+
+    @Test
+    void keepsNewestRecordsAndCountsDropsWhenRingWraps() throws IOException {
+        int extra = 100;
+        for (int i = 0; i < CAPACITY + extra; i++) tick("t" + i);
+        writer.flush();
+
+        List<String[]> rows = rows();
+        assertEquals(CAPACITY + 1, rows.size());
+        assertEquals("t" + extra, rows.get(0)[3]);
+        assertEquals("t" + (CAPACITY + extra - 1), rows.get(CAPACITY - 1)[3]);
+        String[] dropped = rows.get(CAPACITY);
+        assertEquals("dropped", dropped[2]);
+        assertEquals(String.valueOf(extra), dropped[7]);
+
+        // The count is reset once reported
+        tick("after");
+        writer.flush();
+        rows = rows();
+        assertEquals(CAPACITY + 2, rows.size());
+        assertEquals("after", rows.get(CAPACITY + 1)[3]);
+    }
+
+    @Test
+    void concurrentWritersLoseNothingUncounted() throws Exception {
+        int threads = 4;
+        int perThread = 5000;
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            String name = "w" + t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) tick(name);
+            });
+            writers[t].start();
+        }
+        for (Thread t : writers) t.join();
+        writer.flush();
+
+        long ticks = 0;
+        long dropped = 0;
+        for (String[] row : rows()) {
+            if (row[2].equals("tick")) ticks++;
+            else dropped += Long.parseLong(row[7]);
+        }
+        assertEquals(CAPACITY, ticks);
+        assertEquals((long) threads * perThread, ticks + dropped);
+    }
+
+    @Test
+    void quotesNamesWithCommas() throws IOException {
+        tick("f,1");
+        writer.flush();
+        assertTrue(lines().get(1).contains(",\"f,1\","));
+    }
+
+    private void tick(String name) {
+        writer.add(TraceWriter.TICK, name, System.nanoTime(), 1500, 2500, -1, null);
+    }
+
+    private List<String> lines() throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            List<Path> traces = files.collect(Collectors.toList());
+            assertEquals(1, traces.size());
+            return Files.readAllLines(traces.get(0), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Data rows split into columns; names in these tests contain no commas. */
+    private List<String[]> rows() throws IOException {
+        List<String> lines = lines();
+        assertEquals("epoch_ms,elapsed_ms,event,frame,capture_us,filter_us,present_us,detail", lines.get(0));
+        return lines.subList(1, lines.size()).stream()
+                .map(l -> l.split(",", -1))
+                .collect(Collectors.toList());
+    }
+}